@@ -1,16 +1,24 @@
 package com.magicsystem;
 
+import com.magicsystem.block.MagicSystemBlocks;
 import com.magicsystem.commands.CastCommand;
 import com.magicsystem.config.MagicSystemConfig;
 import com.magicsystem.effects.EffectsManager;
+import com.magicsystem.effects.FxBudget;
 import com.magicsystem.effects.WallManager;
+import com.magicsystem.entity.MagicSystemEntities;
+import com.magicsystem.mana.ManaAttachments;
 import com.magicsystem.mana.ManaManager;
 import com.magicsystem.network.MagicSystemNetworking;
 import com.magicsystem.spells.SpellManager;
 import net.fabricmc.api.ModInitializer;
 import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerChunkEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerWorldEvents;
+import net.fabricmc.fabric.api.event.player.PlayerBlockBreakEvents;
+import net.fabricmc.fabric.api.networking.v1.EntityTrackingEvents;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
 import net.minecraft.util.Identifier;
 import org.slf4j.Logger;
@@ -36,6 +44,15 @@ public final class MagicSystemMod implements ModInitializer {
         manaManager = new ManaManager(config);
         spellManager = new SpellManager(config);
         
+        // Register blocks
+        MagicSystemBlocks.register();
+        
+        // Register player data attachments
+        ManaAttachments.register();
+        
+        // Register entity types
+        MagicSystemEntities.register();
+        
         // Register networking
         MagicSystemNetworking.registerServer();
         
@@ -47,18 +64,46 @@ public final class MagicSystemMod implements ModInitializer {
         // Register server events
         ServerLifecycleEvents.SERVER_STARTED.register(server -> {
             manaManager.onServerStarted(server);
+            // Take down walls a crash or shutdown left standing
+            for (net.minecraft.server.world.ServerWorld world : server.getWorlds()) {
+                WallManager.recoverOrphans(world);
+            }
         });
         
         ServerLifecycleEvents.SERVER_STOPPING.register(server -> {
             manaManager.onServerStopping(server);
-            spellManager.onServerStopping();
+            EffectsManager.clearAll();
+            WallManager.clearAll();
+            FxBudget.clearAll();
+        });
+
+        ServerWorldEvents.UNLOAD.register((server, world) -> {
+            EffectsManager.onWorldUnload(world);
+            WallManager.onWorldUnload(world);
+            FxBudget.onWorldUnload(world);
         });
         
-        // Register server tick for mana regeneration and effects
+        // Walls pause while none of their chunks are loaded
+        ServerChunkEvents.CHUNK_LOAD.register((world, chunk) -> WallManager.onChunkLoad(world, chunk.getPos()));
+        ServerChunkEvents.CHUNK_UNLOAD.register((world, chunk) -> WallManager.onChunkUnload(world, chunk.getPos()));
+
+        // Players who start tracking a projectile mid-flight get its trail descriptor
+        EntityTrackingEvents.START_TRACKING.register(EffectsManager::onStartTracking);
+
+        // Active wall blocks can only be broken in creative
+        PlayerBlockBreakEvents.BEFORE.register((world, player, pos, state, blockEntity) ->
+            !(world instanceof net.minecraft.server.world.ServerWorld serverWorld) || WallManager.onPlayerBreak(serverWorld, player, pos));
+        
+        // Register server tick for mana regeneration
         ServerTickEvents.END_SERVER_TICK.register(server -> {
             manaManager.tick(server);
-            EffectsManager.tick(server);
-            WallManager.tick(server);
+        });
+
+        // Effects and walls are per dimension, ticked with their own world
+        ServerTickEvents.END_WORLD_TICK.register(world -> {
+            EffectsManager.tick(world);
+            WallManager.tick(world);
+            FxBudget.flush(world);
         });
 
         // Send cooldowns to players periodically (each second)
@@ -0,0 +1,38 @@
+package com.magicsystem.block;
+
+import com.magicsystem.MagicSystemMod;
+import net.minecraft.block.AbstractBlock;
+import net.minecraft.block.Block;
+import net.minecraft.block.MapColor;
+import net.minecraft.block.piston.PistonBehavior;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.Registry;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.sound.BlockSoundGroup;
+
+public final class MagicSystemBlocks {
+    public static final RegistryKey<Block> ARCANE_WALL_KEY =
+        RegistryKey.of(RegistryKeys.BLOCK, MagicSystemMod.id("arcane_wall"));
+
+    // Default wall material: a plain full cube, so no gravity ticks, no random ticks and no light
+    // emission (each lit block would cost a light update); drops nothing and pistons can't move it
+    public static final Block ARCANE_WALL = Registry.register(
+        Registries.BLOCK,
+        ARCANE_WALL_KEY,
+        new Block(AbstractBlock.Settings.create()
+            .registryKey(ARCANE_WALL_KEY)
+            .mapColor(MapColor.PURPLE)
+            .strength(1.5f, 1200.0f)
+            .sounds(BlockSoundGroup.AMETHYST_BLOCK)
+            .dropsNothing()
+            .pistonBehavior(PistonBehavior.BLOCK))
+    );
+
+    private MagicSystemBlocks() {}
+
+    public static void register() {
+        // Touching the class runs the static registrations
+        MagicSystemMod.LOGGER.info("Magic System blocks registered");
+    }
+}
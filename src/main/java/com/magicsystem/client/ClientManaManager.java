@@ -4,17 +4,39 @@ import com.magicsystem.MagicSystemMod;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
 
+/**
+ * Client view of the player's mana. The server sends its value together with the regen rate,
+ * interval and the ticks until its next regen step; between updates the client applies the same
+ * steps itself, so the HUD animates without a packet per step. Any server update overrides the
+ * prediction.
+ */
 @Environment(EnvType.CLIENT)
 public class ClientManaManager {
     private static int currentMana = 0;
     private static int maxMana = 100;
+    private static int regenRate = 0;
+    private static int regenInterval = 0;
+    private static int ticksUntilRegen = 0;
     
-    public static void updateMana(int current, int max) {
+    public static void updateMana(int current, int max, int rate, int interval, int untilRegen) {
         currentMana = current;
         maxMana = max;
+        regenRate = rate;
+        regenInterval = interval;
+        ticksUntilRegen = untilRegen;
         MagicSystemMod.LOGGER.debug("Client mana updated: {}/{}", current, max);
     }
     
+    /** Advances the regen prediction by one tick. Called at the end of each client world tick. */
+    public static void tick() {
+        if (regenInterval <= 0) return;
+        if (--ticksUntilRegen > 0) return;
+        ticksUntilRegen = regenInterval;
+        if (currentMana < maxMana) {
+            currentMana = Math.min(currentMana + regenRate, maxMana);
+        }
+    }
+    
     public static int getCurrentMana() {
         return currentMana;
     }
@@ -31,6 +53,9 @@ public class ClientManaManager {
     public static void reset() {
         currentMana = 0;
         maxMana = 100;
+        regenRate = 0;
+        regenInterval = 0;
+        ticksUntilRegen = 0;
         MagicSystemMod.LOGGER.debug("Client mana data reset");
     }
 }
@@ -0,0 +1,170 @@
+package com.magicsystem.client;
+
+import com.magicsystem.network.ProjectileTrailPacket;
+import com.magicsystem.network.VirtualProjectileSpawnPacket;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.entity.Entity;
+import net.minecraft.particle.ParticleEffect;
+import net.minecraft.particle.ParticleTypes;
+import net.minecraft.registry.Registries;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.util.math.random.Random;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Draws projectile trails locally from the descriptors sent by the server. Entity-backed trails
+ * follow their entity; virtual projectiles are integrated here with the server's gravity and drag.
+ */
+@Environment(EnvType.CLIENT)
+public class ClientTrailManager {
+    // Descriptor may arrive before the entity spawn packet; wait this long for the entity to show up
+    private static final int MISSING_ENTITY_GRACE_TICKS = 20;
+
+    private static final Map<Integer, Trail> trails = new HashMap<>();
+    private static final Map<Integer, Trail> virtuals = new HashMap<>();
+
+    public static void addTrail(ProjectileTrailPacket packet) {
+        trails.put(packet.entityId(), new Trail(particleOrFlame(packet.particle()), packet.flameCount(), Math.max(1, packet.smokeEveryNSteps()), packet.maxLifetimeTicks()));
+    }
+
+    public static void addVirtual(VirtualProjectileSpawnPacket packet) {
+        Trail trail = new Trail(particleOrFlame(packet.particle()), packet.flameCount(), Math.max(1, packet.smokeEveryNSteps()), packet.maxLifetimeTicks());
+        trail.lastPos = new Vec3d(packet.x(), packet.y(), packet.z());
+        trail.vx = packet.vx();
+        trail.vy = packet.vy();
+        trail.vz = packet.vz();
+        trail.gravityPerTick = packet.gravityPerTick();
+        trail.drag = packet.drag();
+        virtuals.put(packet.id(), trail);
+    }
+
+    public static void removeVirtual(int id) {
+        virtuals.remove(id);
+    }
+
+    private static ParticleEffect particleOrFlame(Identifier id) {
+        if (Registries.PARTICLE_TYPE.get(id) instanceof ParticleEffect effect) {
+            return effect;
+        }
+        return ParticleTypes.FLAME;
+    }
+
+    public static void tick(ClientWorld world) {
+        if (trails.isEmpty() && virtuals.isEmpty()) return;
+        MinecraftClient client = MinecraftClient.getInstance();
+        Random random = world.getRandom();
+        tickVirtuals(client, random);
+        Iterator<Map.Entry<Integer, Trail>> it = trails.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Integer, Trail> e = it.next();
+            Trail trail = e.getValue();
+            trail.ticks++;
+
+            Entity entity = world.getEntityById(e.getKey());
+            if (entity == null || entity.isRemoved()) {
+                // Not spawned yet, or already gone after having been seen
+                if (trail.lastPos != null || trail.ticks > MISSING_ENTITY_GRACE_TICKS) {
+                    it.remove();
+                }
+                continue;
+            }
+            if (trail.ticks > trail.maxLifetimeTicks + MISSING_ENTITY_GRACE_TICKS) {
+                it.remove();
+                continue;
+            }
+
+            Vec3d curr = entity.getPos();
+            if (trail.lastPos == null) {
+                // Initial puff where the projectile first appears
+                for (int i = 0; i < trail.flameCount; i++) {
+                    addParticle(client, random, trail.particle, curr.x, curr.y, curr.z, 0.03);
+                }
+            } else {
+                drawSegment(client, random, trail, trail.lastPos.x, trail.lastPos.y, trail.lastPos.z, curr.x, curr.y, curr.z);
+            }
+            trail.lastPos = curr;
+        }
+    }
+
+    private static void tickVirtuals(MinecraftClient client, Random random) {
+        if (virtuals.isEmpty()) return;
+        Iterator<Trail> it = virtuals.values().iterator();
+        while (it.hasNext()) {
+            Trail trail = it.next();
+            // Impact packet normally ends it; lifetime is the fallback if that packet never arrives
+            if (++trail.ticks > trail.maxLifetimeTicks + MISSING_ENTITY_GRACE_TICKS) {
+                it.remove();
+                continue;
+            }
+            // Same integration order as the server: advance, then gravity and drag
+            double x = trail.lastPos.x, y = trail.lastPos.y, z = trail.lastPos.z;
+            double nx = x + trail.vx, ny = y + trail.vy, nz = z + trail.vz;
+            trail.vx = trail.vx * trail.drag;
+            trail.vy = (trail.vy - trail.gravityPerTick) * trail.drag;
+            trail.vz = trail.vz * trail.drag;
+
+            drawSegment(client, random, trail, x, y, z, nx, ny, nz);
+            // Bright head in place of an entity model
+            addParticle(client, random, trail.particle, nx, ny, nz, 0.05);
+            addParticle(client, random, trail.particle, nx, ny, nz, 0.05);
+            trail.lastPos = new Vec3d(nx, ny, nz);
+        }
+    }
+
+    private static void drawSegment(MinecraftClient client, Random random, Trail trail, double fromX, double fromY, double fromZ, double toX, double toY, double toZ) {
+        double dx = toX - fromX;
+        double dy = toY - fromY;
+        double dz = toZ - fromZ;
+        int steps = Math.max(3, (int) (Math.sqrt(dx * dx + dy * dy + dz * dz) * 10));
+        for (int i = 0; i <= steps; i++) {
+            double t = i / (double) steps;
+            double px = fromX + dx * t;
+            double py = fromY + dy * t;
+            double pz = fromZ + dz * t;
+            addParticle(client, random, trail.particle, px, py, pz, 0.02);
+            if ((i % trail.smokeEveryNSteps) == 0) addParticle(client, random, ParticleTypes.SMOKE, px, py, pz, 0.02);
+        }
+    }
+
+    private static void addParticle(MinecraftClient client, Random random, ParticleEffect particle, double x, double y, double z, double spread) {
+        client.particleManager.addParticle(particle,
+            x + random.nextGaussian() * spread,
+            y + random.nextGaussian() * spread,
+            z + random.nextGaussian() * spread,
+            random.nextGaussian() * 0.01,
+            random.nextGaussian() * 0.01,
+            random.nextGaussian() * 0.01);
+    }
+
+    public static void reset() {
+        trails.clear();
+        virtuals.clear();
+    }
+
+    private static final class Trail {
+        final ParticleEffect particle;
+        final int flameCount;
+        final int smokeEveryNSteps;
+        final int maxLifetimeTicks;
+        Vec3d lastPos;
+        int ticks = 0;
+        // Ballistics, virtual projectiles only
+        double vx, vy, vz;
+        double gravityPerTick;
+        double drag = 1.0;
+
+        Trail(ParticleEffect particle, int flameCount, int smokeEveryNSteps, int maxLifetimeTicks) {
+            this.particle = particle;
+            this.flameCount = flameCount;
+            this.smokeEveryNSteps = smokeEveryNSteps;
+            this.maxLifetimeTicks = maxLifetimeTicks;
+        }
+    }
+}
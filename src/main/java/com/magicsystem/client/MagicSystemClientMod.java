@@ -1,11 +1,15 @@
 package com.magicsystem.client;
 
 import com.magicsystem.client.hud.ManaHUD;
+import com.magicsystem.entity.MagicSystemEntities;
 import com.magicsystem.network.MagicSystemNetworking;
 import net.fabricmc.api.ClientModInitializer;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
+import net.fabricmc.fabric.api.client.rendering.v1.EntityRendererRegistry;
+import net.minecraft.client.render.entity.FlyingItemEntityRenderer;
 
 @Environment(EnvType.CLIENT)
 public final class MagicSystemClientMod implements ClientModInitializer {
@@ -17,10 +21,18 @@ public final class MagicSystemClientMod implements ClientModInitializer {
         
         // Initialize client-side components
         ManaHUD.init();
+        EntityRendererRegistry.register(MagicSystemEntities.MAGIC_PROJECTILE, FlyingItemEntityRenderer::new);
+
+        // Draw server-described projectile trails locally
+        ClientTickEvents.END_WORLD_TICK.register(ClientTrailManager::tick);
+
+        // Predict mana regeneration between server corrections
+        ClientTickEvents.END_WORLD_TICK.register(world -> ClientManaManager.tick());
         
         // Reset mana data when disconnecting
         ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> {
             ClientManaManager.reset();
+            ClientTrailManager.reset();
         });
         
         com.magicsystem.MagicSystemMod.LOGGER.info("Magic System client initialized");
@@ -22,12 +22,23 @@ public class MagicSystemConfig {
     public int manaPerLevel = 10;
     public int manaRegenerationRate = 1; // mana per second (default doubled)
     public int manaRegenerationInterval = 5; // ticks between regeneration
+    public int manaSyncInterval = 1; // minimum ticks between mana packets to one player; max-mana changes bypass it
+    public int manaResyncInterval = 40; // ticks between corrections to a regenerating player's client prediction; 0 = off
+    public boolean persistCooldowns = true; // save running spell cooldowns with the player alongside mana
     
     // Spell settings
     public boolean enableSpellCooldowns = true;
     public boolean enableManaCosts = true;
     public float globalSpellDamageMultiplier = 1.0f;
     
+    // Effects settings
+    public boolean clientSideTrails = true; // send one trail descriptor per projectile instead of particle packets
+    public boolean virtualProjectiles = false; // simulate projectiles without spawning vanilla entities
+    public int fxParticlesPerTick = 1024; // per world; impacts first, then trails, then ambient
+    public int fxParticlesPerChunk = 256;
+    public int fxSoundsPerTick = 24;
+    public int wallBlockEditsPerTick = 512; // per world; wall rise, repair and dissolve share it
+    
     public void load() {
         try {
             if (Files.exists(CONFIG_PATH)) {
@@ -39,12 +50,23 @@ public class MagicSystemConfig {
                 if (json.has("manaPerLevel")) manaPerLevel = json.get("manaPerLevel").getAsInt();
                 if (json.has("manaRegenerationRate")) manaRegenerationRate = json.get("manaRegenerationRate").getAsInt();
                 if (json.has("manaRegenerationInterval")) manaRegenerationInterval = json.get("manaRegenerationInterval").getAsInt();
+                if (json.has("manaSyncInterval")) manaSyncInterval = json.get("manaSyncInterval").getAsInt();
+                if (json.has("manaResyncInterval")) manaResyncInterval = json.get("manaResyncInterval").getAsInt();
+                if (json.has("persistCooldowns")) persistCooldowns = json.get("persistCooldowns").getAsBoolean();
                 
                 // Load spell settings
                 if (json.has("enableSpellCooldowns")) enableSpellCooldowns = json.get("enableSpellCooldowns").getAsBoolean();
                 if (json.has("enableManaCosts")) enableManaCosts = json.get("enableManaCosts").getAsBoolean();
                 if (json.has("globalSpellDamageMultiplier")) globalSpellDamageMultiplier = json.get("globalSpellDamageMultiplier").getAsFloat();
                 
+                // Load effects settings
+                if (json.has("clientSideTrails")) clientSideTrails = json.get("clientSideTrails").getAsBoolean();
+                if (json.has("virtualProjectiles")) virtualProjectiles = json.get("virtualProjectiles").getAsBoolean();
+                if (json.has("fxParticlesPerTick")) fxParticlesPerTick = json.get("fxParticlesPerTick").getAsInt();
+                if (json.has("fxParticlesPerChunk")) fxParticlesPerChunk = json.get("fxParticlesPerChunk").getAsInt();
+                if (json.has("fxSoundsPerTick")) fxSoundsPerTick = json.get("fxSoundsPerTick").getAsInt();
+                if (json.has("wallBlockEditsPerTick")) wallBlockEditsPerTick = json.get("wallBlockEditsPerTick").getAsInt();
+                
                 MagicSystemMod.LOGGER.info("Configuration loaded from {}", CONFIG_PATH);
             } else {
                 save();
@@ -64,12 +86,23 @@ public class MagicSystemConfig {
             json.addProperty("manaPerLevel", manaPerLevel);
             json.addProperty("manaRegenerationRate", manaRegenerationRate);
             json.addProperty("manaRegenerationInterval", manaRegenerationInterval);
+            json.addProperty("manaSyncInterval", manaSyncInterval);
+            json.addProperty("manaResyncInterval", manaResyncInterval);
+            json.addProperty("persistCooldowns", persistCooldowns);
             
             // Save spell settings
             json.addProperty("enableSpellCooldowns", enableSpellCooldowns);
             json.addProperty("enableManaCosts", enableManaCosts);
             json.addProperty("globalSpellDamageMultiplier", globalSpellDamageMultiplier);
             
+            // Save effects settings
+            json.addProperty("clientSideTrails", clientSideTrails);
+            json.addProperty("virtualProjectiles", virtualProjectiles);
+            json.addProperty("fxParticlesPerTick", fxParticlesPerTick);
+            json.addProperty("fxParticlesPerChunk", fxParticlesPerChunk);
+            json.addProperty("fxSoundsPerTick", fxSoundsPerTick);
+            json.addProperty("wallBlockEditsPerTick", wallBlockEditsPerTick);
+            
             Files.writeString(CONFIG_PATH, GSON.toJson(json));
             MagicSystemMod.LOGGER.info("Configuration saved to {}", CONFIG_PATH);
         } catch (IOException e) {
@@ -0,0 +1,80 @@
+package com.magicsystem.effects;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects block edits during a tick and applies them grouped by chunk section. Quiet edits
+ * ({@link #set}) are written with listener notification only: no neighbour updates, no shape
+ * updates of adjacent blocks and no drops. That suits wall blocks going up, which nothing around
+ * them needs to react to. Edits that hand a position back to the world ({@link #setWithUpdates})
+ * run the full neighbour and shape updates, so fluids flow into the gap, unsupported blocks fall
+ * or pop off and redstone re-evaluates. Clients still see every change, since vanilla coalesces all
+ * changes of a section made in one tick into a single delta packet.
+ */
+final class BlockEditBatch {
+    private static final int QUIET_FLAGS = Block.NOTIFY_LISTENERS | Block.FORCE_STATE | Block.SKIP_DROPS;
+    private static final int UPDATE_FLAGS = Block.NOTIFY_ALL | Block.SKIP_DROPS;
+
+    // Insertion-ordered, so sections are applied in the order they were first touched
+    private final Long2ObjectLinkedOpenHashMap<SectionEdits> sections = new Long2ObjectLinkedOpenHashMap<>();
+    private int size = 0;
+
+    /** Queues a quiet edit: no neighbour or shape updates. */
+    void set(long packedPos, BlockState state) {
+        add(packedPos, state, QUIET_FLAGS);
+    }
+
+    /** Queues an edit that notifies neighbours and updates their shapes, as a normal block change would. */
+    void setWithUpdates(long packedPos, BlockState state) {
+        add(packedPos, state, UPDATE_FLAGS);
+    }
+
+    private void add(long packedPos, BlockState state, int flags) {
+        long section = ChunkSectionPos.asLong(
+            ChunkSectionPos.getSectionCoord(BlockPos.unpackLongX(packedPos)),
+            ChunkSectionPos.getSectionCoord(BlockPos.unpackLongY(packedPos)),
+            ChunkSectionPos.getSectionCoord(BlockPos.unpackLongZ(packedPos)));
+        SectionEdits edits = sections.get(section);
+        if (edits == null) {
+            edits = new SectionEdits();
+            sections.put(section, edits);
+        }
+        edits.positions.add(packedPos);
+        edits.states.add(state);
+        edits.flags.add(flags);
+        size++;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Writes every collected edit, one section at a time, and empties the batch. */
+    void apply(ServerWorld world) {
+        if (size == 0) return;
+        for (SectionEdits edits : sections.values()) {
+            for (int i = 0; i < edits.positions.size(); i++) {
+                // A fresh BlockPos per edit: block callbacks (scheduled ticks) may keep the position
+                world.setBlockState(BlockPos.fromLong(edits.positions.getLong(i)), edits.states.get(i), edits.flags.getInt(i));
+            }
+        }
+        sections.clear();
+        size = 0;
+    }
+
+    private static final class SectionEdits {
+        final LongArrayList positions = new LongArrayList();
+        final List<BlockState> states = new ArrayList<>();
+        final IntArrayList flags = new IntArrayList();
+    }
+}
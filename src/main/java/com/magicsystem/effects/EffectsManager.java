@@ -1,27 +1,65 @@
 package com.magicsystem.effects;
 
+import com.magicsystem.MagicSystemMod;
+import com.magicsystem.entity.MagicProjectileEntity;
+import com.magicsystem.network.MagicSystemNetworking;
+import com.magicsystem.network.ProjectileTrailPacket;
+import com.magicsystem.network.VirtualProjectileSpawnPacket;
+import net.fabricmc.fabric.api.networking.v1.PlayerLookup;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.block.ShapeContext;
 import net.minecraft.entity.Entity;
-import net.minecraft.entity.LivingEntity;
-import net.minecraft.server.MinecraftServer;
+import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.sound.SoundCategory;
 import net.minecraft.sound.SoundEvents;
+import net.minecraft.util.hit.BlockHitResult;
+import net.minecraft.util.hit.HitResult;
 import net.minecraft.util.math.Box;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.ChunkSectionPos;
 import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.RaycastContext;
 import net.minecraft.world.World;
 import net.minecraft.particle.ParticleTypes;
 
-import java.util.*;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Tracks spell projectiles for one dimension. Instances are created lazily per {@link ServerWorld}
+ * and ticked from that world's tick, so dimensions never share state.
+ */
 public final class EffectsManager {
-    private static final Map<UUID, TrackedProjectile> tracked = new HashMap<>();
+    private static final Map<RegistryKey<World>, EffectsManager> BY_WORLD = new ConcurrentHashMap<>();
 
     // Default trajectory tuning (overridable per projectile)
     private static final double DEFAULT_GRAVITY_PER_TICK = 0.01;
     private static final double DEFAULT_DRAG = 0.996;
     private static final int DEFAULT_MAX_LIFETIME_TICKS = 120;
 
-    private EffectsManager() {}
+    // Players who started watching a virtual projectile's chunk get its descriptor within this many ticks
+    private static final int VIEWER_SYNC_TICKS = 5;
+
+    // Network ids for virtual projectiles, unique across dimensions
+    private static final AtomicInteger NEXT_VIRTUAL_ID = new AtomicInteger();
+
+    private final ServerWorld world;
+    private final ProjectileTracker tracked = new ProjectileTracker();
+    private final ImpactResolver impacts = new ImpactResolver();
+
+    private EffectsManager(ServerWorld world) {
+        this.world = world;
+    }
+
+    public static EffectsManager get(ServerWorld world) {
+        return BY_WORLD.computeIfAbsent(world.getRegistryKey(), k -> new EffectsManager(world));
+    }
 
     public static void trackProjectile(Entity entity) {
         trackProjectile(entity, 8.0f); // default fallback
@@ -30,179 +68,301 @@ public final class EffectsManager {
     public static void trackProjectile(Entity entity, float baseDamage) {
         trackProjectile(entity, baseDamage, 0.5f, 2.5f, 2.0f);
     }
-    
+
     public static void trackProjectile(Entity entity, float baseDamage, float directHitRadius, float areaDamageRadius, float knockbackStrength) {
-        if (entity == null || entity.getWorld().isClient) return;
-        tracked.put(entity.getUuid(), new TrackedProjectile(
-            entity.getUuid(),
-            entity.getWorld().getRegistryKey().getValue().toString(),
-            entity.getPos(),
-            baseDamage,
-            directHitRadius,
-            areaDamageRadius,
-            knockbackStrength,
-            ProjectileParams.builder()
-                .gravityPerTick(DEFAULT_GRAVITY_PER_TICK)
-                .drag(DEFAULT_DRAG)
-                .maxLifetimeTicks(DEFAULT_MAX_LIFETIME_TICKS)
-                .build(),
-            null
-        ));
-    }
-
-    public static void tick(MinecraftServer server) {
-        if (tracked.isEmpty()) return;
-        Iterator<Map.Entry<UUID, TrackedProjectile>> it = tracked.entrySet().iterator();
-        while (it.hasNext()) {
-            Map.Entry<UUID, TrackedProjectile> e = it.next();
-            UUID id = e.getKey();
-            TrackedProjectile tp = e.getValue();
-
-            ServerWorld world = findWorld(server, tp.worldKey);
-            if (world == null) {
-                it.remove();
+        if (entity == null || !(entity.getWorld() instanceof ServerWorld serverWorld)) return;
+        get(serverWorld).track(entity, baseDamage, directHitRadius, areaDamageRadius, knockbackStrength);
+    }
+
+    /**
+     * Launches an entity-less projectile. It is simulated here with the default gravity and drag,
+     * collides by sweeping a sphere of {@code collisionRadius} against entities and a ray against
+     * block colliders, and only costs a spawn and an impact packet on the network.
+     */
+    public static void launchVirtualProjectile(ServerWorld world, Entity owner, Vec3d pos, Vec3d velocity, double collisionRadius,
+                                               float baseDamage, float directHitRadius, float areaDamageRadius, float knockbackStrength) {
+        get(world).launchVirtual(owner, pos, velocity, collisionRadius, baseDamage, directHitRadius, areaDamageRadius, knockbackStrength);
+    }
+
+    /**
+     * Called from the projectile collision mixin with the exact hit position. The impact is queued
+     * for this tick's resolve and the projectile leaves the tracker immediately.
+     */
+    public static void onProjectileCollision(ServerWorld world, Entity entity, Vec3d hitPos) {
+        EffectsManager manager = BY_WORLD.get(world.getRegistryKey());
+        if (manager != null) manager.collide(entity, hitPos);
+    }
+
+    /**
+     * Sends a tracked projectile's trail descriptor to a player who just started tracking it, so
+     * players who come into range mid-flight see the trail too. Called from START_TRACKING.
+     */
+    public static void onStartTracking(Entity entity, ServerPlayerEntity player) {
+        if (!clientSideTrails() || !(entity instanceof TrackedProjectileAccess access)) return;
+        int slot = access.magicsystem$getTrackerSlot();
+        if (slot < 0 || !(entity.getWorld() instanceof ServerWorld serverWorld)) return;
+        EffectsManager manager = BY_WORLD.get(serverWorld.getRegistryKey());
+        if (manager != null) manager.sendTrail(slot, entity, player);
+    }
+
+    /** Ticks the manager for the given world, if one exists. Called from END_WORLD_TICK. */
+    public static void tick(ServerWorld world) {
+        EffectsManager manager = BY_WORLD.get(world.getRegistryKey());
+        if (manager != null) manager.tick();
+    }
+
+    /** Drops the manager of an unloading world. */
+    public static void onWorldUnload(ServerWorld world) {
+        BY_WORLD.remove(world.getRegistryKey());
+    }
+
+    public static void clearAll() {
+        BY_WORLD.clear();
+    }
+
+    public static ProjectileParams.Builder defaultParams() {
+        return ProjectileParams.builder()
+            .gravityPerTick(DEFAULT_GRAVITY_PER_TICK)
+            .drag(DEFAULT_DRAG)
+            .maxLifetimeTicks(DEFAULT_MAX_LIFETIME_TICKS);
+    }
+
+    private void track(Entity entity, float baseDamage, float directHitRadius, float areaDamageRadius, float knockbackStrength) {
+        ProjectileParams params = defaultParams().build();
+        boolean alreadyTracked = tracked.slotOf(entity) >= 0;
+        // Tracking twice updates the existing slot, so the impact still resolves once
+        int slot = tracked.add(entity, params, baseDamage, directHitRadius, areaDamageRadius, knockbackStrength, null);
+        if (entity instanceof TrackedProjectileAccess access) {
+            access.magicsystem$setTrackerSlot(slot);
+        }
+        if (!alreadyTracked && clientSideTrails()) {
+            // Players who start tracking it later get the descriptor from onStartTracking
+            for (ServerPlayerEntity player : PlayerLookup.tracking(entity)) {
+                sendTrail(slot, entity, player);
+            }
+        }
+    }
+
+    private void sendTrail(int slot, Entity entity, ServerPlayerEntity player) {
+        ProjectileTracker t = tracked;
+        if (!t.isLive(slot) || t.entity[slot] != entity) return;
+        MagicSystemNetworking.sendProjectileTrail(player, entity, t.params[slot], t.maxLifetimeTicks[slot] - t.ticks[slot]);
+    }
+
+    private void launchVirtual(Entity owner, Vec3d pos, Vec3d velocity, double collisionRadius,
+                               float baseDamage, float directHitRadius, float areaDamageRadius, float knockbackStrength) {
+        ProjectileParams params = defaultParams().collisionRadius(collisionRadius).build();
+        int id = NEXT_VIRTUAL_ID.incrementAndGet();
+        int slot = tracked.addVirtual(id, owner, pos.x, pos.y, pos.z, velocity.x, velocity.y, velocity.z,
+            params, baseDamage, directHitRadius, areaDamageRadius, knockbackStrength, null);
+        syncViewers(slot);
+    }
+
+    /**
+     * Sends a virtual projectile's current state to every player watching its chunk who has not had
+     * it yet. Players whose client can't receive it are left to the server-side trail.
+     */
+    private void syncViewers(int slot) {
+        ProjectileTracker t = tracked;
+        List<ServerPlayerEntity> viewers = t.viewers[slot];
+        ChunkPos chunk = new ChunkPos(ChunkSectionPos.getSectionCoord(t.lastX[slot]), ChunkSectionPos.getSectionCoord(t.lastZ[slot]));
+        for (ServerPlayerEntity player : PlayerLookup.tracking(world, chunk)) {
+            if (viewers.contains(player)) continue;
+            if (MagicSystemNetworking.sendVirtualProjectileSpawn(player, t.virtualId[slot],
+                    t.lastX[slot], t.lastY[slot], t.lastZ[slot], t.velX[slot], t.velY[slot], t.velZ[slot],
+                    t.params[slot], t.maxLifetimeTicks[slot] - t.ticks[slot])) {
+                viewers.add(player);
+            }
+        }
+    }
+
+    /** Ends a virtual projectile on the clients that were drawing it, and frees its slot. */
+    private void removeVirtual(int slot, double x, double y, double z) {
+        ProjectileTracker t = tracked;
+        for (ServerPlayerEntity player : t.viewers[slot]) {
+            MagicSystemNetworking.sendVirtualProjectileImpact(player, t.virtualId[slot], x, y, z);
+        }
+        t.remove(slot);
+    }
+
+    private void collide(Entity entity, Vec3d hitPos) {
+        if (!(entity instanceof TrackedProjectileAccess access)) return;
+        int slot = access.magicsystem$getTrackerSlot();
+        if (slot < 0 || !tracked.isLive(slot) || tracked.entity[slot] != entity) return;
+        spawnImpact(slot, hitPos.x, hitPos.y, hitPos.z);
+        untrack(slot);
+    }
+
+    private void untrack(int slot) {
+        if (tracked.entity[slot] instanceof TrackedProjectileAccess access) {
+            access.magicsystem$setTrackerSlot(-1);
+        }
+        tracked.remove(slot);
+    }
+
+    private static boolean clientSideTrails() {
+        return MagicSystemMod.getConfig() != null && MagicSystemMod.getConfig().clientSideTrails;
+    }
+
+    private void tick() {
+        if (!tracked.isEmpty()) {
+            tickProjectiles();
+        }
+        // Includes impacts queued by collisions during this tick's entity updates
+        impacts.resolve(world);
+    }
+
+    private void tickProjectiles() {
+        ProjectileTracker t = tracked;
+        // Client-drawn trails still need server particles for players whose client can't draw them
+        boolean serverTrails = !clientSideTrails() || anyPlayerWithout(ProjectileTrailPacket.ID);
+        for (int slot = 0, end = t.highWater(); slot < end; slot++) {
+            if (!t.isLive(slot)) continue;
+            if (t.isVirtual(slot)) {
+                tickVirtual(slot, serverTrails);
                 continue;
             }
 
-            Entity entity = world.getEntity(id);
-            if (entity != null && entity.isAlive()) {
-                // Apply arc: gravity and drag
-                Vec3d v = entity.getVelocity();
-                Vec3d vNext = new Vec3d(
-                    v.x * tp.params.drag,
-                    (v.y - tp.params.gravityPerTick) * tp.params.drag,
-                    v.z * tp.params.drag
-                );
-                entity.setVelocity(vNext);
-
-                // Trail and lifetime handling
-                Vec3d curr = entity.getPos();
-                spawnTrail(world, tp.lastPos, curr);
-                tp.lastPos = curr;
-
-                tp.ticks++;
-                if (tp.ticks > tp.params.maxLifetimeTicks) {
+            Entity entity = t.entity[slot];
+            if (entity.isAlive() && !entity.isRemoved()) {
+                // Apply arc: gravity and drag (magic projectiles integrate their own)
+                if (!(entity instanceof MagicProjectileEntity)) {
+                    Vec3d v = entity.getVelocity();
+                    double drag = t.drag[slot];
+                    entity.setVelocity(
+                        v.x * drag,
+                        (v.y - t.gravityPerTick[slot]) * drag,
+                        v.z * drag
+                    );
+                }
+
+                // Trail and lifetime handling (clients draw the trail themselves in client-side mode)
+                double x = entity.getX(), y = entity.getY(), z = entity.getZ();
+                if (serverTrails) {
+                    spawnTrail(t.lastX[slot], t.lastY[slot], t.lastZ[slot], x, y, z, ProjectileTrailPacket.ID);
+                }
+                t.lastX[slot] = x;
+                t.lastY[slot] = y;
+                t.lastZ[slot] = z;
+
+                if (++t.ticks[slot] > t.maxLifetimeTicks[slot]) {
                     // Timed-out: explode and remove
-                    spawnImpact(world, entity.getPos(), tp);
+                    spawnImpact(slot, x, y, z);
+                    untrack(slot);
                     entity.discard();
-                    it.remove();
                 }
             } else {
-                // Impact occurred or despawned: spawn explosion effects at last known pos
-                if (tp.lastPos != null) {
-                    spawnImpact(world, tp.lastPos, tp);
-                }
-                it.remove();
+                // Collisions already left the tracker through the mixin; anything else simply despawned
+                untrack(slot);
             }
         }
     }
 
-    private static void spawnTrail(ServerWorld world, Vec3d from, Vec3d to) {
-        if (from == null || to == null) {
-            if (to != null) {
-                world.spawnParticles(ParticleTypes.FLAME, to.x, to.y, to.z, 6, 0.03, 0.03, 0.03, 0.01);
-                world.spawnParticles(ParticleTypes.SMOKE, to.x, to.y, to.z, 3, 0.03, 0.03, 0.03, 0.01);
-            }
+    private void tickVirtual(int slot, boolean serverTrails) {
+        ProjectileTracker t = tracked;
+        double x = t.lastX[slot], y = t.lastY[slot], z = t.lastZ[slot];
+        double vx = t.velX[slot], vy = t.velY[slot], vz = t.velZ[slot];
+
+        if (++t.ticks[slot] > t.maxLifetimeTicks[slot]) {
+            // Timed-out: explode and remove
+            impactVirtual(slot, x, y, z);
             return;
         }
-        double dx = to.x - from.x;
-        double dy = to.y - from.y;
-        double dz = to.z - from.z;
-        int steps = Math.max(3, (int)(from.distanceTo(to) * 10));
-        for (int i = 0; i <= steps; i++) {
-            double t = i / (double) steps;
-            double px = from.x + dx * t;
-            double py = from.y + dy * t;
-            double pz = from.z + dz * t;
-            world.spawnParticles(ParticleTypes.FLAME, px, py, pz, 1, 0.02, 0.02, 0.02, 0.01);
-            if ((i % 2) == 0) world.spawnParticles(ParticleTypes.SMOKE, px, py, pz, 1, 0.02, 0.02, 0.02, 0.005);
+        if (t.ticks[slot] % VIEWER_SYNC_TICKS == 0) {
+            syncViewers(slot);
         }
-    }
 
-    private static void spawnImpact(ServerWorld world, Vec3d pos, TrackedProjectile tp) {
-        // Visual explosion (no block damage, no fire placement)
-        world.spawnParticles(ParticleTypes.EXPLOSION, pos.x, pos.y, pos.z, 1, 0, 0, 0, 0);
-        world.spawnParticles(ParticleTypes.EXPLOSION_EMITTER, pos.x, pos.y, pos.z, 1, 0.0, 0.0, 0.0, 0.0);
-        world.spawnParticles(ParticleTypes.LAVA, pos.x, pos.y, pos.z, 12, 0.25, 0.25, 0.25, 0.02);
-        world.playSound(null, pos.x, pos.y, pos.z, SoundEvents.ENTITY_GENERIC_EXPLODE, SoundCategory.PLAYERS, 0.9f, 1.1f);
-
-        // Apply AoE damage with spell-specific zones
-        float directHitRadius = tp.directHitRadius;
-        float areaDamageRadius = tp.areaDamageRadius;
-        float knockbackStrength = tp.knockbackStrength;
-        float baseDamage = tp.baseDamage;
-
-        double maxRadius = areaDamageRadius;
-        Box box = new Box(pos.x - maxRadius, pos.y - maxRadius, pos.z - maxRadius, 
-                         pos.x + maxRadius, pos.y + maxRadius, pos.z + maxRadius);
-        List<LivingEntity> entities = world.getEntitiesByClass(LivingEntity.class, box, e -> e.isAlive());
-        
-        for (LivingEntity le : entities) {
-            double dist = le.getPos().distanceTo(pos);
-            float dmg;
-            float finalKnockback;
-            
-            if (dist <= directHitRadius) {
-                // Direct hit zone: full damage
-                dmg = baseDamage;
-                finalKnockback = knockbackStrength;
-            } else if (dist <= areaDamageRadius) {
-                // Area damage zone: falloff from 75% to 25%
-                float falloffFactor = (float)(1.0 - ((dist - directHitRadius) / (areaDamageRadius - directHitRadius)));
-                dmg = baseDamage * (0.25f + 0.5f * falloffFactor); // 25% to 75% damage
-                finalKnockback = knockbackStrength * (0.4f + 0.6f * falloffFactor); // Reduced knockback in outer zone
-            } else {
-                continue; // Outside damage range
-            }
-            
-            le.damage(world, world.getDamageSources().explosion(null), dmg);
-            le.setOnFireFor(3); // brief ignite feedback only
-            
-            // Apply knockback scaled by zone
-            double dx = le.getX() - pos.x;
-            double dz = le.getZ() - pos.z;
-            double hDist = Math.sqrt(dx * dx + dz * dz);
-            if (hDist > 0.0) {
-                dx /= hDist;
-                dz /= hDist;
+        double nx = x + vx, ny = y + vy, nz = z + vz;
+        // Never pull in a chunk: a projectile leaving loaded terrain just fizzles out
+        if (!world.isChunkLoaded(ChunkSectionPos.getSectionCoord(nx), ChunkSectionPos.getSectionCoord(nz))) {
+            removeVirtual(slot, x, y, z);
+            return;
+        }
+
+        Vec3d from = new Vec3d(x, y, z);
+        Vec3d to = new Vec3d(nx, ny, nz);
+        BlockHitResult blockHit = world.raycast(new RaycastContext(from, to, RaycastContext.ShapeType.COLLIDER, RaycastContext.FluidHandling.NONE, ShapeContext.absent()));
+        Vec3d end = blockHit.getType() == HitResult.Type.MISS ? to : blockHit.getPos();
+
+        // Swept sphere vs entities: ray against hitboxes inflated by the projectile radius
+        double r = t.collisionRadius[slot];
+        Vec3d hitPos = null;
+        double bestSq = Double.MAX_VALUE;
+        List<Entity> candidates = world.getOtherEntities(t.owner[slot], new Box(from, end).expand(r), e -> e.isAlive() && e.canHit());
+        for (Entity candidate : candidates) {
+            Optional<Vec3d> hit = candidate.getBoundingBox().expand(r).raycast(from, end);
+            if (hit.isPresent()) {
+                double dSq = from.squaredDistanceTo(hit.get());
+                if (dSq < bestSq) {
+                    bestSq = dSq;
+                    hitPos = hit.get();
+                }
             }
-            le.takeKnockback(1.2 * finalKnockback, dx, dz);
+        }
+        if (hitPos == null && blockHit.getType() != HitResult.Type.MISS) {
+            hitPos = end;
         }
 
-        // Custom impact hook (optional)
-        if (tp.customImpact != null) {
-            tp.customImpact.onImpact(world, pos);
+        if (serverTrails) {
+            Vec3d trailEnd = hitPos != null ? hitPos : to;
+            spawnTrail(x, y, z, trailEnd.x, trailEnd.y, trailEnd.z, VirtualProjectileSpawnPacket.ID);
+        }
+        if (hitPos != null) {
+            impactVirtual(slot, hitPos.x, hitPos.y, hitPos.z);
+            return;
         }
+
+        // Advance, then apply arc: gravity and drag (clients integrate in the same order)
+        double drag = t.drag[slot];
+        t.lastX[slot] = nx;
+        t.lastY[slot] = ny;
+        t.lastZ[slot] = nz;
+        t.velX[slot] = vx * drag;
+        t.velY[slot] = (vy - t.gravityPerTick[slot]) * drag;
+        t.velZ[slot] = vz * drag;
+    }
+
+    private void impactVirtual(int slot, double x, double y, double z) {
+        spawnImpact(slot, x, y, z);
+        removeVirtual(slot, x, y, z);
     }
 
-    private static ServerWorld findWorld(MinecraftServer server, String key) {
-        for (ServerWorld w : server.getWorlds()) {
-            if (w.getRegistryKey().getValue().toString().equals(key)) return w;
+    private boolean anyPlayerWithout(CustomPayload.Id<?> channel) {
+        for (ServerPlayerEntity player : world.getPlayers()) {
+            if (!ServerPlayNetworking.canSend(player, channel)) return true;
         }
-        return null;
+        return false;
     }
 
-    private static class TrackedProjectile {
-        final UUID id;
-        final String worldKey;
-        final float baseDamage;
-        final float directHitRadius;
-        final float areaDamageRadius;
-        final float knockbackStrength;
-        final ProjectileParams params;
-        final ImpactHandler customImpact;
-        Vec3d lastPos;
-        int ticks = 0;
-        TrackedProjectile(UUID id, String worldKey, Vec3d lastPos, float baseDamage, float directHitRadius, float areaDamageRadius, float knockbackStrength, ProjectileParams params, ImpactHandler customImpact) {
-            this.id = id;
-            this.worldKey = worldKey;
-            this.lastPos = lastPos;
-            this.baseDamage = baseDamage;
-            this.directHitRadius = directHitRadius;
-            this.areaDamageRadius = areaDamageRadius;
-            this.knockbackStrength = knockbackStrength;
-            this.params = params;
-            this.customImpact = customImpact;
+    /**
+     * Server-side trail particles. In client-side trail mode they only go to players whose client
+     * can't receive {@code drawnBy}; everyone else draws the trail from its descriptor.
+     */
+    private void spawnTrail(double fromX, double fromY, double fromZ, double toX, double toY, double toZ, CustomPayload.Id<?> drawnBy) {
+        CustomPayload.Id<?> skip = clientSideTrails() ? drawnBy : null;
+        double dx = toX - fromX;
+        double dy = toY - fromY;
+        double dz = toZ - fromZ;
+        int steps = Math.max(3, (int)(Math.sqrt(dx * dx + dy * dy + dz * dz) * 10));
+        for (int i = 0; i <= steps; i++) {
+            double t = i / (double) steps;
+            double px = fromX + dx * t;
+            double py = fromY + dy * t;
+            double pz = fromZ + dz * t;
+            FxBudget.particles(world, FxBudget.Priority.NORMAL, ParticleTypes.FLAME, px, py, pz, 1, 0.02, 0.02, 0.02, 0.01, skip);
+            if ((i % 2) == 0) FxBudget.particles(world, FxBudget.Priority.NORMAL, ParticleTypes.SMOKE, px, py, pz, 1, 0.02, 0.02, 0.02, 0.005, skip);
         }
     }
+
+    private void spawnImpact(int slot, double x, double y, double z) {
+        // Visual explosion (no block damage, no fire placement)
+        FxBudget.particles(world, FxBudget.Priority.HIGH, ParticleTypes.EXPLOSION, x, y, z, 1, 0, 0, 0, 0);
+        FxBudget.particles(world, FxBudget.Priority.HIGH, ParticleTypes.EXPLOSION_EMITTER, x, y, z, 1, 0.0, 0.0, 0.0, 0.0);
+        FxBudget.particles(world, FxBudget.Priority.HIGH, ParticleTypes.LAVA, x, y, z, 12, 0.25, 0.25, 0.25, 0.02);
+        FxBudget.sound(world, FxBudget.Priority.HIGH, x, y, z, SoundEvents.ENTITY_GENERIC_EXPLODE, SoundCategory.PLAYERS, 0.9f, 1.1f);
+
+        // AoE damage and custom hook are resolved together with this tick's other impacts
+        ProjectileTracker t = tracked;
+        impacts.queue(new Vec3d(x, y, z), t.baseDamage[slot], t.directHitRadius[slot], t.areaDamageRadius[slot], t.knockbackStrength[slot], t.customImpact[slot]);
+    }
 }
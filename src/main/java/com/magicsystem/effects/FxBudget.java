@@ -0,0 +1,216 @@
+package com.magicsystem.effects;
+
+import com.magicsystem.MagicSystemMod;
+import com.magicsystem.config.MagicSystemConfig;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.particle.ParticleEffect;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.registry.entry.RegistryEntry;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.sound.SoundCategory;
+import net.minecraft.sound.SoundEvent;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.World;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-world particle and sound budget. Magic FX are submitted here during the tick and emitted at
+ * the end of it, highest priority first, within a per-tick and per-chunk cap. High-priority work
+ * that does not fit is deferred for a couple of ticks; everything else over budget is dropped.
+ * Particles are sent per receiving player with distance-based level of detail: full density close
+ * up, thinned trails and sampled ambience further out, and nothing when no player is in range.
+ */
+public final class FxBudget {
+    /** HIGH: impacts and wall dissolve. NORMAL: trails, wall rise, cast effects. LOW: ambient smoke and sounds. */
+    public enum Priority { HIGH, NORMAL, LOW }
+
+    private static final Map<RegistryKey<World>, FxBudget> BY_WORLD = new ConcurrentHashMap<>();
+    private static final int MAX_DEFER_TICKS = 2;
+    // LOD bands (squared block distances); vanilla drops non-forced particles past 32 blocks anyway
+    private static final double FULL_DETAIL_DIST_SQ = 16.0 * 16.0;
+    private static final double MAX_VISIBLE_DIST_SQ = 32.0 * 32.0;
+
+    private final ServerWorld world;
+    private final List<List<Fx>> queues = new ArrayList<>();
+    private List<Fx> deferred = new ArrayList<>();
+    private final Long2IntOpenHashMap chunkCost = new Long2IntOpenHashMap();
+    private int particlesLeft;
+    private int soundsLeft;
+    private int chunkCap;
+    private int sequence; // drives deterministic sampling of thinned single particles
+    private List<ServerPlayerEntity> players = List.of();
+
+    private FxBudget(ServerWorld world) {
+        this.world = world;
+        for (int i = 0; i < Priority.values().length; i++) {
+            queues.add(new ArrayList<>());
+        }
+    }
+
+    public static FxBudget get(ServerWorld world) {
+        return BY_WORLD.computeIfAbsent(world.getRegistryKey(), k -> new FxBudget(world));
+    }
+
+    public static void particles(ServerWorld world, Priority priority, ParticleEffect particle,
+                                 double x, double y, double z, int count,
+                                 double offsetX, double offsetY, double offsetZ, double speed) {
+        particles(world, priority, particle, x, y, z, count, offsetX, offsetY, offsetZ, speed, null);
+    }
+
+    /**
+     * Like {@link #particles(ServerWorld, Priority, ParticleEffect, double, double, double, int, double, double, double, double)},
+     * but skips players whose client accepts {@code drawnBy}: those draw the effect themselves.
+     */
+    public static void particles(ServerWorld world, Priority priority, ParticleEffect particle,
+                                 double x, double y, double z, int count,
+                                 double offsetX, double offsetY, double offsetZ, double speed,
+                                 CustomPayload.Id<?> drawnBy) {
+        get(world).submit(priority, new Fx(priority, particle, null, null, x, y, z, count, offsetX, offsetY, offsetZ, speed, 0f, 0f, drawnBy));
+    }
+
+    public static void sound(ServerWorld world, Priority priority, double x, double y, double z,
+                             SoundEvent sound, SoundCategory category, float volume, float pitch) {
+        sound(world, priority, x, y, z, Registries.SOUND_EVENT.getEntry(sound), category, volume, pitch);
+    }
+
+    public static void sound(ServerWorld world, Priority priority, double x, double y, double z,
+                             RegistryEntry<SoundEvent> sound, SoundCategory category, float volume, float pitch) {
+        get(world).submit(priority, new Fx(priority, null, sound, category, x, y, z, 1, 0, 0, 0, 0, volume, pitch, null));
+    }
+
+    /** Emits this tick's FX within budget. Called from END_WORLD_TICK after the managers have ticked. */
+    public static void flush(ServerWorld world) {
+        FxBudget budget = BY_WORLD.get(world.getRegistryKey());
+        if (budget != null) budget.flush();
+    }
+
+    public static void onWorldUnload(ServerWorld world) {
+        BY_WORLD.remove(world.getRegistryKey());
+    }
+
+    public static void clearAll() {
+        BY_WORLD.clear();
+    }
+
+    private void submit(Priority priority, Fx fx) {
+        queues.get(priority.ordinal()).add(fx);
+    }
+
+    private void flush() {
+        MagicSystemConfig config = MagicSystemMod.getConfig();
+        particlesLeft = config.fxParticlesPerTick;
+        chunkCap = config.fxParticlesPerChunk;
+        soundsLeft = config.fxSoundsPerTick;
+        chunkCost.clear();
+        players = world.getPlayers();
+
+        // Deferred high-priority work goes first, then the fresh queues in priority order
+        List<Fx> nextDeferred = new ArrayList<>();
+        for (Fx fx : deferred) {
+            if (!emit(fx) && ++fx.age <= MAX_DEFER_TICKS) nextDeferred.add(fx);
+        }
+        for (Priority priority : Priority.values()) {
+            List<Fx> queue = queues.get(priority.ordinal());
+            for (Fx fx : queue) {
+                if (!emit(fx) && priority == Priority.HIGH) nextDeferred.add(fx);
+            }
+            queue.clear();
+        }
+        deferred = nextDeferred;
+        players = List.of();
+    }
+
+    private boolean emit(Fx fx) {
+        if (fx.sound != null) {
+            if (soundsLeft <= 0) return false;
+            world.playSound(null, fx.x, fx.y, fx.z, fx.sound, fx.category, fx.volume, fx.pitch);
+            soundsLeft--;
+            return true;
+        }
+        int cost = Math.max(1, fx.count);
+        long chunk = ChunkPos.toLong(ChunkSectionPos.getSectionCoord(fx.x), ChunkSectionPos.getSectionCoord(fx.z));
+        int inChunk = chunkCost.get(chunk);
+        if (cost > particlesLeft || inChunk + cost > chunkCap) return false;
+        if (!sendWithLod(fx)) {
+            return true; // nobody can see it: done, and free of charge
+        }
+        particlesLeft -= cost;
+        chunkCost.put(chunk, inChunk + cost);
+        return true;
+    }
+
+    /** Sends a particle burst to each player in range at that player's level of detail. Returns false if nobody was in range. */
+    private boolean sendWithLod(Fx fx) {
+        int seq = sequence++;
+        boolean anyone = false;
+        for (ServerPlayerEntity player : players) {
+            double distSq = player.squaredDistanceTo(fx.x, fx.y, fx.z);
+            if (distSq > MAX_VISIBLE_DIST_SQ) continue;
+            if (fx.drawnBy != null && ServerPlayNetworking.canSend(player, fx.drawnBy)) continue;
+            anyone = true;
+
+            // Impacts always get full detail; trails thin 1:2 and ambience 1:4 beyond the near band
+            int stride = 1;
+            if (distSq > FULL_DETAIL_DIST_SQ) {
+                stride = switch (fx.priority) {
+                    case HIGH -> 1;
+                    case NORMAL -> 2;
+                    case LOW -> 4;
+                };
+            }
+            int count = fx.count;
+            if (stride > 1) {
+                if (count > 1) {
+                    count = (count + stride - 1) / stride;
+                } else if (seq % stride != 0) {
+                    continue;
+                }
+            }
+            world.spawnParticles(player, fx.particle, false, false, fx.x, fx.y, fx.z, count, fx.offsetX, fx.offsetY, fx.offsetZ, fx.speed);
+        }
+        return anyone;
+    }
+
+    private static final class Fx {
+        final Priority priority;
+        final ParticleEffect particle;
+        final RegistryEntry<SoundEvent> sound;
+        final SoundCategory category;
+        final double x, y, z;
+        final int count;
+        final double offsetX, offsetY, offsetZ, speed;
+        final float volume, pitch;
+        final CustomPayload.Id<?> drawnBy; // clients accepting this payload draw the effect themselves
+        int age = 0;
+
+        Fx(Priority priority, ParticleEffect particle, RegistryEntry<SoundEvent> sound, SoundCategory category,
+           double x, double y, double z, int count,
+           double offsetX, double offsetY, double offsetZ, double speed,
+           float volume, float pitch, CustomPayload.Id<?> drawnBy) {
+            this.priority = priority;
+            this.particle = particle;
+            this.sound = sound;
+            this.category = category;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.count = count;
+            this.offsetX = offsetX;
+            this.offsetY = offsetY;
+            this.offsetZ = offsetZ;
+            this.speed = speed;
+            this.volume = volume;
+            this.pitch = pitch;
+            this.drawnBy = drawnBy;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.magicsystem.effects;
+
+import net.minecraft.entity.LivingEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.Vec3d;
+
+import java.util.*;
+
+/**
+ * Collects projectile impacts during a world tick and resolves their AoE damage together at the end.
+ * Overlapping impacts share a single entity query, entities are bucketed in a spatial hash, and
+ * damage/knockback from every impact is summed per entity before it is applied once.
+ */
+final class ImpactResolver {
+    private final List<Impact> pending = new ArrayList<>();
+
+    void queue(Vec3d pos, float baseDamage, float directHitRadius, float areaDamageRadius, float knockbackStrength, ImpactHandler customImpact) {
+        pending.add(new Impact(pos, baseDamage, directHitRadius, areaDamageRadius, knockbackStrength, customImpact));
+    }
+
+    void resolve(ServerWorld world) {
+        if (pending.isEmpty()) return;
+
+        Map<LivingEntity, Accumulated> hits = new IdentityHashMap<>();
+        for (List<Impact> cluster : clusters()) {
+            resolveCluster(world, cluster, hits);
+        }
+
+        for (Map.Entry<LivingEntity, Accumulated> e : hits.entrySet()) {
+            LivingEntity le = e.getKey();
+            Accumulated acc = e.getValue();
+            le.damage(world, world.getDamageSources().explosion(null), acc.damage);
+            le.setOnFireFor(3); // brief ignite feedback only
+
+            // Knockback directions add up; a zero net direction still applies the summed strength
+            double len = Math.sqrt(acc.knockbackX * acc.knockbackX + acc.knockbackZ * acc.knockbackZ);
+            if (len > 1.0e-6) {
+                le.takeKnockback(len, acc.knockbackX / len, acc.knockbackZ / len);
+            } else {
+                le.takeKnockback(acc.knockbackStrength, 0.0, 0.0);
+            }
+        }
+
+        // Custom impact hooks (optional), in impact order
+        for (Impact impact : pending) {
+            if (impact.customImpact != null) {
+                impact.customImpact.onImpact(world, impact.pos);
+            }
+        }
+        pending.clear();
+    }
+
+    /** Groups impacts whose damage boxes overlap, so far-apart arenas don't share one huge query. */
+    private List<List<Impact>> clusters() {
+        List<List<Impact>> clusters = new ArrayList<>();
+        List<Box> bounds = new ArrayList<>();
+        for (Impact impact : pending) {
+            Box box = impact.box();
+            int merged = -1;
+            for (int i = 0; i < bounds.size(); i++) {
+                if (bounds.get(i).intersects(box)) {
+                    merged = i;
+                    break;
+                }
+            }
+            if (merged < 0) {
+                List<Impact> cluster = new ArrayList<>();
+                cluster.add(impact);
+                clusters.add(cluster);
+                bounds.add(box);
+            } else {
+                clusters.get(merged).add(impact);
+                bounds.set(merged, bounds.get(merged).union(box));
+            }
+        }
+        return clusters;
+    }
+
+    private static void resolveCluster(ServerWorld world, List<Impact> cluster, Map<LivingEntity, Accumulated> hits) {
+        Box union = cluster.get(0).box();
+        double cellSize = 1.0;
+        for (Impact impact : cluster) {
+            union = union.union(impact.box());
+            cellSize = Math.max(cellSize, impact.areaDamageRadius);
+        }
+
+        List<LivingEntity> entities = world.getEntitiesByClass(LivingEntity.class, union, e -> e.isAlive());
+        if (entities.isEmpty()) return;
+
+        // Broadphase: bucket entities by cell so each impact only tests its neighbourhood
+        Map<Long, List<LivingEntity>> cells = new HashMap<>();
+        for (LivingEntity le : entities) {
+            long key = cellKey(MathHelper.floor(le.getX() / cellSize), MathHelper.floor(le.getY() / cellSize), MathHelper.floor(le.getZ() / cellSize));
+            cells.computeIfAbsent(key, k -> new ArrayList<>()).add(le);
+        }
+
+        for (Impact impact : cluster) {
+            float directHitRadius = impact.directHitRadius;
+            float areaDamageRadius = impact.areaDamageRadius;
+            double directSq = (double) directHitRadius * directHitRadius;
+            double areaSq = (double) areaDamageRadius * areaDamageRadius;
+            Vec3d pos = impact.pos;
+
+            int minX = MathHelper.floor((pos.x - areaDamageRadius) / cellSize), maxX = MathHelper.floor((pos.x + areaDamageRadius) / cellSize);
+            int minY = MathHelper.floor((pos.y - areaDamageRadius) / cellSize), maxY = MathHelper.floor((pos.y + areaDamageRadius) / cellSize);
+            int minZ = MathHelper.floor((pos.z - areaDamageRadius) / cellSize), maxZ = MathHelper.floor((pos.z + areaDamageRadius) / cellSize);
+            for (int cx = minX; cx <= maxX; cx++) {
+                for (int cy = minY; cy <= maxY; cy++) {
+                    for (int cz = minZ; cz <= maxZ; cz++) {
+                        List<LivingEntity> bucket = cells.get(cellKey(cx, cy, cz));
+                        if (bucket == null) continue;
+                        for (LivingEntity le : bucket) {
+                            double dx = le.getX() - pos.x;
+                            double dy = le.getY() - pos.y;
+                            double dz = le.getZ() - pos.z;
+                            double distSq = dx * dx + dy * dy + dz * dz;
+                            float dmg;
+                            float finalKnockback;
+
+                            if (distSq <= directSq) {
+                                // Direct hit zone: full damage
+                                dmg = impact.baseDamage;
+                                finalKnockback = impact.knockbackStrength;
+                            } else if (distSq <= areaSq) {
+                                // Area damage zone: falloff from 75% to 25%
+                                double dist = Math.sqrt(distSq);
+                                float falloffFactor = (float)(1.0 - ((dist - directHitRadius) / (areaDamageRadius - directHitRadius)));
+                                dmg = impact.baseDamage * (0.25f + 0.5f * falloffFactor); // 25% to 75% damage
+                                finalKnockback = impact.knockbackStrength * (0.4f + 0.6f * falloffFactor); // Reduced knockback in outer zone
+                            } else {
+                                continue; // Outside damage range
+                            }
+
+                            Accumulated acc = hits.computeIfAbsent(le, k -> new Accumulated());
+                            acc.damage += dmg;
+
+                            // Knockback scaled by zone, along the horizontal direction from the impact
+                            double strength = 1.2 * finalKnockback;
+                            double hDist = Math.sqrt(dx * dx + dz * dz);
+                            if (hDist > 0.0) {
+                                acc.knockbackX += strength * dx / hDist;
+                                acc.knockbackZ += strength * dz / hDist;
+                            }
+                            acc.knockbackStrength += strength;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static long cellKey(int x, int y, int z) {
+        return ((long) x & 0x1FFFFFL) << 42 | ((long) y & 0x1FFFFFL) << 21 | ((long) z & 0x1FFFFFL);
+    }
+
+    private static final class Accumulated {
+        float damage;
+        double knockbackX;
+        double knockbackZ;
+        double knockbackStrength;
+    }
+
+    private record Impact(Vec3d pos, float baseDamage, float directHitRadius, float areaDamageRadius, float knockbackStrength, ImpactHandler customImpact) {
+        Box box() {
+            double r = areaDamageRadius;
+            return new Box(pos.x - r, pos.y - r, pos.z - r, pos.x + r, pos.y + r, pos.z + r);
+        }
+    }
+}
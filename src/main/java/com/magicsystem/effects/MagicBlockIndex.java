@@ -0,0 +1,53 @@
+package com.magicsystem.effects;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+/**
+ * Per-world index of the blocks owned by active magic structures, keyed by packed block position.
+ * Maps each block to its owner and to the block's index within that owner, so "is this a wall
+ * block, whose, which layer" is one hash lookup instead of a scan over every wall.
+ */
+final class MagicBlockIndex<T> {
+    private final Long2ObjectOpenHashMap<T> owners = new Long2ObjectOpenHashMap<>();
+    private final Long2IntOpenHashMap indices = new Long2IntOpenHashMap();
+
+    MagicBlockIndex() {
+        indices.defaultReturnValue(-1);
+    }
+
+    boolean contains(long pos) {
+        return owners.containsKey(pos);
+    }
+
+    /** The owner of a block, or null if the block is not indexed. */
+    T owner(long pos) {
+        return owners.get(pos);
+    }
+
+    /** The block's index within its owner, or -1 if the block is not indexed. */
+    int indexOf(long pos) {
+        return indices.get(pos);
+    }
+
+    void put(long pos, T owner, int index) {
+        owners.put(pos, owner);
+        indices.put(pos, index);
+    }
+
+    void remove(long pos) {
+        owners.remove(pos);
+        indices.remove(pos);
+    }
+
+    /** Removes the given positions, skipping any that have since been claimed by another owner. */
+    void removeAll(long[] positions, T owner) {
+        for (long pos : positions) {
+            if (owners.get(pos) == owner) remove(pos);
+        }
+    }
+
+    boolean isEmpty() {
+        return owners.isEmpty();
+    }
+}
@@ -1,18 +1,25 @@
 package com.magicsystem.effects;
 
+import net.minecraft.particle.ParticleTypes;
+import net.minecraft.particle.SimpleParticleType;
+
 public final class ProjectileParams {
     public final double gravityPerTick;
     public final double drag;
     public final int maxLifetimeTicks;
+    public final double collisionRadius;
     public final int trailFlameCount;
     public final int trailSmokeEveryNSteps;
+    public final SimpleParticleType trailParticle;
 
     private ProjectileParams(Builder builder) {
         this.gravityPerTick = builder.gravityPerTick;
         this.drag = builder.drag;
         this.maxLifetimeTicks = builder.maxLifetimeTicks;
+        this.collisionRadius = builder.collisionRadius;
         this.trailFlameCount = builder.trailFlameCount;
         this.trailSmokeEveryNSteps = builder.trailSmokeEveryNSteps;
+        this.trailParticle = builder.trailParticle;
     }
 
     public static Builder builder() { return new Builder(); }
@@ -21,14 +28,18 @@ public final class ProjectileParams {
         private double gravityPerTick = 0.01;
         private double drag = 0.996;
         private int maxLifetimeTicks = 120;
+        private double collisionRadius = 0.5;
         private int trailFlameCount = 6;
         private int trailSmokeEveryNSteps = 2;
+        private SimpleParticleType trailParticle = ParticleTypes.FLAME;
 
         public Builder gravityPerTick(double value) { this.gravityPerTick = value; return this; }
         public Builder drag(double value) { this.drag = value; return this; }
         public Builder maxLifetimeTicks(int value) { this.maxLifetimeTicks = value; return this; }
+        public Builder collisionRadius(double value) { this.collisionRadius = value; return this; }
         public Builder trailFlameCount(int value) { this.trailFlameCount = value; return this; }
         public Builder trailSmokeEveryNSteps(int value) { this.trailSmokeEveryNSteps = value; return this; }
+        public Builder trailParticle(SimpleParticleType value) { this.trailParticle = value; return this; }
 
         public ProjectileParams build() { return new ProjectileParams(this); }
     }
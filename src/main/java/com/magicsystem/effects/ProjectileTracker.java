@@ -0,0 +1,188 @@
+package com.magicsystem.effects;
+
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import net.minecraft.entity.Entity;
+import net.minecraft.server.network.ServerPlayerEntity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Struct-of-arrays storage for tracked projectiles. Each projectile occupies one slot across the
+ * parallel columns; freed slots are recycled through a free-list so steady-state ticking allocates
+ * nothing. The entity reference is cached on add, so no per-tick UUID lookup is needed; an entity id
+ * to slot map keeps each entity in one slot however often it is added.
+ * Virtual projectiles have no entity; their position and velocity live in the columns instead.
+ */
+final class ProjectileTracker {
+    private static final int INITIAL_CAPACITY = 64;
+
+    // Columns, indexed by slot
+    Entity[] entity = new Entity[INITIAL_CAPACITY]; // null for virtual projectiles
+    Entity[] owner = new Entity[INITIAL_CAPACITY];
+    int[] virtualId = new int[INITIAL_CAPACITY];
+    double[] velX = new double[INITIAL_CAPACITY];
+    double[] velY = new double[INITIAL_CAPACITY];
+    double[] velZ = new double[INITIAL_CAPACITY];
+    double[] collisionRadius = new double[INITIAL_CAPACITY];
+    double[] lastX = new double[INITIAL_CAPACITY];
+    double[] lastY = new double[INITIAL_CAPACITY];
+    double[] lastZ = new double[INITIAL_CAPACITY];
+    int[] ticks = new int[INITIAL_CAPACITY];
+    double[] gravityPerTick = new double[INITIAL_CAPACITY];
+    double[] drag = new double[INITIAL_CAPACITY];
+    int[] maxLifetimeTicks = new int[INITIAL_CAPACITY];
+    float[] baseDamage = new float[INITIAL_CAPACITY];
+    float[] directHitRadius = new float[INITIAL_CAPACITY];
+    float[] areaDamageRadius = new float[INITIAL_CAPACITY];
+    float[] knockbackStrength = new float[INITIAL_CAPACITY];
+    ImpactHandler[] customImpact = new ImpactHandler[INITIAL_CAPACITY];
+    ProjectileParams[] params = new ProjectileParams[INITIAL_CAPACITY]; // for trail descriptors sent after launch
+    // Players sent a virtual projectile's spawn descriptor; each list is reused with its slot
+    List<ServerPlayerEntity>[] viewers = newViewerColumn(INITIAL_CAPACITY);
+
+    // Slot bookkeeping
+    private boolean[] live = new boolean[INITIAL_CAPACITY];
+    private int[] freeSlots = new int[INITIAL_CAPACITY];
+    private int freeCount = 0;
+    private int highWater = 0; // slots [0, highWater) have been handed out at least once
+    private int size = 0;
+    private final Int2IntOpenHashMap slotByEntityId = new Int2IntOpenHashMap();
+
+    ProjectileTracker() {
+        slotByEntityId.defaultReturnValue(-1);
+    }
+
+    /** The entity's slot, or -1 if it is not tracked. */
+    int slotOf(Entity e) {
+        int slot = slotByEntityId.get(e.getId());
+        return slot >= 0 && entity[slot] == e ? slot : -1;
+    }
+
+    /** Tracks an entity. An entity that is already tracked keeps its slot and flight so far and takes the new parameters. */
+    int add(Entity e, ProjectileParams params, float damage, float directRadius, float areaRadius, float knockback, ImpactHandler handler) {
+        int slot = slotOf(e);
+        if (slot >= 0) {
+            configure(slot, params, damage, directRadius, areaRadius, knockback, handler);
+            return slot;
+        }
+        slot = allocate(params, damage, directRadius, areaRadius, knockback, handler);
+        entity[slot] = e;
+        slotByEntityId.put(e.getId(), slot);
+        lastX[slot] = e.getX();
+        lastY[slot] = e.getY();
+        lastZ[slot] = e.getZ();
+        return slot;
+    }
+
+    int addVirtual(int id, Entity shooter, double x, double y, double z, double vx, double vy, double vz,
+                   ProjectileParams params, float damage, float directRadius, float areaRadius, float knockback, ImpactHandler handler) {
+        int slot = allocate(params, damage, directRadius, areaRadius, knockback, handler);
+        virtualId[slot] = id;
+        owner[slot] = shooter;
+        lastX[slot] = x;
+        lastY[slot] = y;
+        lastZ[slot] = z;
+        velX[slot] = vx;
+        velY[slot] = vy;
+        velZ[slot] = vz;
+        if (viewers[slot] == null) viewers[slot] = new ArrayList<>();
+        return slot;
+    }
+
+    private int allocate(ProjectileParams params, float damage, float directRadius, float areaRadius, float knockback, ImpactHandler handler) {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (highWater == live.length) grow();
+            slot = highWater++;
+        }
+        live[slot] = true;
+        size++;
+        ticks[slot] = 0;
+        configure(slot, params, damage, directRadius, areaRadius, knockback, handler);
+        return slot;
+    }
+
+    private void configure(int slot, ProjectileParams params, float damage, float directRadius, float areaRadius, float knockback, ImpactHandler handler) {
+        collisionRadius[slot] = params.collisionRadius;
+        gravityPerTick[slot] = params.gravityPerTick;
+        drag[slot] = params.drag;
+        maxLifetimeTicks[slot] = params.maxLifetimeTicks;
+        baseDamage[slot] = damage;
+        directHitRadius[slot] = directRadius;
+        areaDamageRadius[slot] = areaRadius;
+        knockbackStrength[slot] = knockback;
+        customImpact[slot] = handler;
+        this.params[slot] = params;
+    }
+
+    boolean isVirtual(int slot) {
+        return entity[slot] == null;
+    }
+
+    void remove(int slot) {
+        if (!live[slot]) return;
+        live[slot] = false;
+        if (entity[slot] != null) slotByEntityId.remove(entity[slot].getId(), slot);
+        // Drop object references so the entity and handler can be collected
+        entity[slot] = null;
+        owner[slot] = null;
+        customImpact[slot] = null;
+        params[slot] = null;
+        if (viewers[slot] != null) viewers[slot].clear();
+        freeSlots[freeCount++] = slot;
+        size--;
+    }
+
+    boolean isLive(int slot) {
+        return live[slot];
+    }
+
+    /** Upper bound (exclusive) of slots that may be live. */
+    int highWater() {
+        return highWater;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<ServerPlayerEntity>[] newViewerColumn(int capacity) {
+        return (List<ServerPlayerEntity>[]) new List[capacity];
+    }
+
+    private void grow() {
+        int n = live.length * 2;
+        entity = Arrays.copyOf(entity, n);
+        owner = Arrays.copyOf(owner, n);
+        virtualId = Arrays.copyOf(virtualId, n);
+        velX = Arrays.copyOf(velX, n);
+        velY = Arrays.copyOf(velY, n);
+        velZ = Arrays.copyOf(velZ, n);
+        collisionRadius = Arrays.copyOf(collisionRadius, n);
+        lastX = Arrays.copyOf(lastX, n);
+        lastY = Arrays.copyOf(lastY, n);
+        lastZ = Arrays.copyOf(lastZ, n);
+        ticks = Arrays.copyOf(ticks, n);
+        gravityPerTick = Arrays.copyOf(gravityPerTick, n);
+        drag = Arrays.copyOf(drag, n);
+        maxLifetimeTicks = Arrays.copyOf(maxLifetimeTicks, n);
+        baseDamage = Arrays.copyOf(baseDamage, n);
+        directHitRadius = Arrays.copyOf(directHitRadius, n);
+        areaDamageRadius = Arrays.copyOf(areaDamageRadius, n);
+        knockbackStrength = Arrays.copyOf(knockbackStrength, n);
+        customImpact = Arrays.copyOf(customImpact, n);
+        params = Arrays.copyOf(params, n);
+        viewers = Arrays.copyOf(viewers, n);
+        live = Arrays.copyOf(live, n);
+        freeSlots = Arrays.copyOf(freeSlots, n);
+    }
+}
@@ -0,0 +1,10 @@
+package com.magicsystem.effects;
+
+/**
+ * Implemented on projectile entities by mixin so a collision can find its tracker slot in O(1).
+ */
+public interface TrackedProjectileAccess {
+    int magicsystem$getTrackerSlot();
+
+    void magicsystem$setTrackerSlot(int slot);
+}
@@ -0,0 +1,247 @@
+package com.magicsystem.effects;
+
+import com.magicsystem.MagicSystemMod;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.mojang.serialization.JsonOps;
+import it.unimi.dsi.fastutil.ints.Int2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import net.minecraft.block.BlockState;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.WorldSavePath;
+import net.minecraft.world.dimension.DimensionType;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only, memory-mapped log of a world's temporary walls: creations, replaced originals and
+ * dissolves. Appending is a handful of buffer writes on the tick thread; the OS flushes the mapped
+ * pages, so the log survives a crash of the server process. Walls still open in the log on the
+ * next start are orphans and get cleaned up by {@link WallManager#recoverOrphans}.
+ *
+ * Each record's type byte is written last, after its body and the terminator behind it, so a
+ * half-written record reads as the end of the log. Block states are logged once each, as their
+ * block id and properties, and referenced by palette index after that; raw state ids would not
+ * survive a change to the registered blocks. On replay, states that no longer resolve are skipped
+ * one by one, leaving everything else in the log to be restored.
+ */
+final class WallJournal {
+    private static final int MAGIC = 0x4D53574A; // "MSWJ"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 8; // magic, version
+    private static final int INITIAL_SIZE = 64 * 1024;
+
+    private static final byte END = 0;
+    private static final byte CREATE = 1;
+    private static final byte REPLACE = 2;
+    private static final byte DISSOLVE = 3;
+    private static final byte STATE = 4;
+
+    private final Path path;
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int nextWallId = 1;
+    // Palette index of every state logged since the last reset
+    private final Reference2IntOpenHashMap<BlockState> paletteIds = new Reference2IntOpenHashMap<>();
+
+    private WallJournal(Path path, FileChannel channel) throws IOException {
+        this.path = path;
+        this.channel = channel;
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(INITIAL_SIZE, channel.size()));
+        paletteIds.defaultReturnValue(-1);
+    }
+
+    /** Opens (or creates) the journal of a world. Returns null if the file cannot be mapped; walls then run unjournaled. */
+    static WallJournal open(ServerWorld world) {
+        Path dir = DimensionType.getSaveDirectory(world.getRegistryKey(), world.getServer().getSavePath(WorldSavePath.ROOT)).resolve("data");
+        Path path = dir.resolve("magicsystem_walls.journal");
+        try {
+            Files.createDirectories(dir);
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new WallJournal(path, channel);
+        } catch (IOException e) {
+            MagicSystemMod.LOGGER.warn("Could not open wall journal {}; walls will not survive a crash", path, e);
+            return null;
+        }
+    }
+
+    /** Reads the walls that were created but never dissolved, then empties the journal. */
+    List<OrphanWall> takeOrphans() {
+        List<OrphanWall> orphans = new ArrayList<>();
+        if (buffer.getInt(0) == MAGIC && buffer.getInt(4) == VERSION) {
+            Int2ObjectOpenHashMap<BlockState> palette = new Int2ObjectOpenHashMap<>(); // null where a state no longer resolves
+            Int2ObjectLinkedOpenHashMap<OrphanWall> open = new Int2ObjectLinkedOpenHashMap<>();
+            buffer.position(HEADER_SIZE);
+            try {
+                byte type;
+                while ((type = buffer.get()) != END) {
+                    switch (type) {
+                        case STATE -> {
+                            int paletteId = buffer.getInt();
+                            int length = buffer.getInt();
+                            if (length < 0 || length > buffer.remaining()) throw new IllegalStateException("Bad state length " + length);
+                            byte[] encoded = new byte[length];
+                            buffer.get(encoded);
+                            palette.put(paletteId, decode(new String(encoded, StandardCharsets.UTF_8)));
+                        }
+                        case CREATE -> {
+                            int wallId = buffer.getInt();
+                            int material = buffer.getInt();
+                            long[] positions = new long[buffer.getInt()];
+                            for (int i = 0; i < positions.length; i++) positions[i] = buffer.getLong();
+                            open.put(wallId, new OrphanWall(palette.get(material), positions));
+                        }
+                        case REPLACE -> {
+                            int wallId = buffer.getInt();
+                            int index = buffer.getInt();
+                            BlockState state = palette.get(buffer.getInt());
+                            OrphanWall wall = open.get(wallId);
+                            if (wall != null && state != null) {
+                                wall.replaced.put(index, state);
+                            } else if (wall != null) {
+                                wall.unresolved.add(index);
+                            }
+                        }
+                        case DISSOLVE -> open.remove(buffer.getInt());
+                        default -> throw new IllegalStateException("Unknown wall journal record " + type);
+                    }
+                }
+            } catch (BufferUnderflowException | IllegalStateException | NegativeArraySizeException e) {
+                MagicSystemMod.LOGGER.warn("Wall journal {} is damaged; recovering the walls read so far", path);
+            }
+            orphans.addAll(open.values());
+        }
+        reset();
+        return orphans;
+    }
+
+    /** Logs a new wall and returns its journal id. */
+    int create(BlockState material, long[] positions) {
+        int wallId = nextWallId++;
+        int materialId = paletteId(material);
+        if (materialId < 0) return wallId;
+        int start = beginRecord(1 + 4 + 4 + 4 + 8 * positions.length);
+        if (start < 0) return wallId;
+        buffer.putInt(wallId).putInt(materialId).putInt(positions.length);
+        for (long pos : positions) buffer.putLong(pos);
+        commit(start, CREATE);
+        return wallId;
+    }
+
+    void replace(int wallId, int index, BlockState original) {
+        int originalId = paletteId(original);
+        if (originalId < 0) return;
+        int start = beginRecord(1 + 4 + 4 + 4);
+        if (start < 0) return;
+        buffer.putInt(wallId).putInt(index).putInt(originalId);
+        commit(start, REPLACE);
+    }
+
+    void dissolve(int wallId) {
+        int start = beginRecord(1 + 4);
+        if (start < 0) return;
+        buffer.putInt(wallId);
+        commit(start, DISSOLVE);
+    }
+
+    /** The palette index of a state, logging the state first if this log has not seen it yet. Returns -1 if that failed. */
+    private int paletteId(BlockState state) {
+        int paletteId = paletteIds.getInt(state);
+        if (paletteId >= 0) return paletteId;
+        byte[] encoded = encode(state).getBytes(StandardCharsets.UTF_8);
+        int start = beginRecord(1 + 4 + 4 + encoded.length);
+        if (start < 0) return -1;
+        paletteId = paletteIds.size();
+        buffer.putInt(paletteId).putInt(encoded.length).put(encoded);
+        commit(start, STATE);
+        paletteIds.put(state, paletteId);
+        return paletteId;
+    }
+
+    /** The state as JSON: block id plus properties, independent of raw state ids. */
+    private static String encode(BlockState state) {
+        return BlockState.CODEC.encodeStart(JsonOps.INSTANCE, state).getOrThrow().toString();
+    }
+
+    /** The state a logged JSON form names, or null if its block or properties no longer exist. */
+    private static BlockState decode(String json) {
+        try {
+            return BlockState.CODEC.parse(JsonOps.INSTANCE, JsonParser.parseString(json)).result().orElse(null);
+        } catch (JsonParseException e) {
+            return null;
+        }
+    }
+
+    /** Empties the journal. Cheap: only the header and one terminator byte are written. */
+    void reset() {
+        buffer.putInt(0, MAGIC).putInt(4, VERSION);
+        buffer.put(HEADER_SIZE, END);
+        buffer.position(HEADER_SIZE);
+        paletteIds.clear();
+    }
+
+    void close() {
+        try {
+            buffer.force();
+            channel.close();
+        } catch (IOException e) {
+            MagicSystemMod.LOGGER.warn("Failed to close wall journal {}", path, e);
+        }
+    }
+
+    /** Makes room for a record plus terminator and positions the buffer after the type byte. Returns the record start, or -1. */
+    private int beginRecord(int size) {
+        int start = buffer.position();
+        if (buffer.capacity() - start < size + 1) {
+            try {
+                long capacity = buffer.capacity();
+                while (capacity - start < size + 1) capacity *= 2;
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            } catch (IOException e) {
+                MagicSystemMod.LOGGER.warn("Failed to grow wall journal {}", path, e);
+                return -1;
+            }
+        }
+        buffer.position(start + 1);
+        return start;
+    }
+
+    /** Writes the terminator behind the record, then publishes the record by writing its type byte. */
+    private void commit(int start, byte type) {
+        int end = buffer.position();
+        buffer.put(end, END);
+        buffer.put(start, type);
+        buffer.position(end);
+    }
+
+    /**
+     * A wall found open in the journal: its material (null if it no longer resolves), blocks, and
+     * replaced originals by index, with the indices whose original no longer resolves kept apart.
+     */
+    static final class OrphanWall {
+        final BlockState material;
+        final long[] positions;
+        final Int2ObjectOpenHashMap<BlockState> replaced = new Int2ObjectOpenHashMap<>();
+        final IntOpenHashSet unresolved = new IntOpenHashSet();
+
+        OrphanWall(BlockState material, long[] positions) {
+            this.material = material;
+            this.positions = positions;
+        }
+
+        BlockState replacedAt(int index) {
+            return replaced.get(index);
+        }
+    }
+}
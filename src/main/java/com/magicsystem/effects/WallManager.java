@@ -1,156 +1,467 @@
 package com.magicsystem.effects;
 
+import com.magicsystem.MagicSystemMod;
+import com.magicsystem.block.MagicSystemBlocks;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
+import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.particle.ParticleTypes;
-import net.minecraft.server.MinecraftServer;
+import net.minecraft.registry.RegistryKey;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.sound.SoundCategory;
 import net.minecraft.sound.SoundEvents;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
 import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.World;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Manages temporary walls (Great Wall spell). Handles rise animation and timed dissolve.
+ * One instance exists per {@link ServerWorld}; it is ticked from that world's tick.
+ * Every wall is recorded in the world's {@link WallJournal}, so walls cut short by a crash or
+ * shutdown are taken down when the world is next loaded.
  */
 public final class WallManager {
-    private static final List<WallInstance> ACTIVE = new ArrayList<>();
+    private static final Map<RegistryKey<World>, WallManager> BY_WORLD = new ConcurrentHashMap<>();
+    // Ambient particles are only visible this far out (32 blocks), measured from the wall's edge
+    private static final double AMBIENT_RANGE = 32.0;
+    // Blocks re-checked per wall per tick while it holds; a full pass over a 7x4 wall takes 2 ticks
+    private static final int REPAIR_SAMPLES_PER_TICK = 16;
 
-    private WallManager() {}
+    private final ServerWorld world;
+    private final List<WallInstance> active = new ArrayList<>();
+    private final BlockEditBatch edits = new BlockEditBatch();
+    private final ArrayDeque<EditRun> queue = new ArrayDeque<>(); // wall edits waiting for block-edit budget
+    private WallJournal journal; // opened by recover(); null before that or if the file could not be opened
+    private boolean recovered = false;
+    private final MagicBlockIndex<WallInstance> index = new MagicBlockIndex<>();
+    // Chunks holding wall blocks, kept current by chunk load/unload events rather than by probing the world
+    private final Long2ObjectOpenHashMap<List<WallInstance>> wallsByChunk = new Long2ObjectOpenHashMap<>();
+    private final LongOpenHashSet loadedWallChunks = new LongOpenHashSet();
 
-    public static void create(ServerWorld world,
-                              List<BlockPos> positions,
+    private WallManager(ServerWorld world) {
+        this.world = world;
+    }
+
+    public static WallManager get(ServerWorld world) {
+        WallManager manager = BY_WORLD.computeIfAbsent(world.getRegistryKey(), k -> new WallManager(world));
+        // Outside computeIfAbsent: replaying the journal writes blocks, and the events that fires must find this manager
+        manager.recover();
+        return manager;
+    }
+
+    /**
+     * Starts a wall over the given packed block positions ({@link BlockPos#asLong}). Returns false,
+     * starting nothing, if there are no positions or every one is already held by another wall.
+     */
+    public static boolean create(ServerWorld world,
+                              long[] positions,
                               int width, int height,
                               int riseTicks,
                               int holdTicks,
                               BlockPos center,
                               BlockState material,
-                              boolean allowReplace) {
-        if (positions == null || positions.isEmpty()) return;
-        ACTIVE.add(new WallInstance(world.getRegistryKey().getValue().toString(), positions, width, height, riseTicks, holdTicks, center, material == null ? Blocks.STONE.getDefaultState() : material, allowReplace));
+                              boolean allowReplace,
+                              UUID caster) {
+        if (positions == null || positions.length == 0) return false;
+        WallManager manager = get(world);
+        // Blocks already held by another active wall stay with that wall
+        LongArrayList free = new LongArrayList(positions.length);
+        for (long pos : positions) {
+            if (!manager.index.contains(pos)) free.add(pos);
+        }
+        if (free.isEmpty()) return false;
+        WallInstance wall = new WallInstance(free.toLongArray(), width, height, riseTicks, holdTicks, center, material == null ? MagicSystemBlocks.ARCANE_WALL.getDefaultState() : material, allowReplace, caster);
+        for (int i = 0; i < wall.size(); i++) {
+            manager.index.put(wall.positions[i], wall, i);
+        }
+        if (manager.journal != null) wall.journalId = manager.journal.create(wall.material, wall.positions);
+        manager.subscribeChunks(wall);
+        manager.active.add(wall);
+        return true;
     }
 
-    public static void tick(MinecraftServer server) {
-        if (ACTIVE.isEmpty()) return;
-        Iterator<WallInstance> it = ACTIVE.iterator();
-        while (it.hasNext()) {
-            WallInstance w = it.next();
-            ServerWorld world = findWorld(server, w.worldKey);
-            if (world == null) {
-                it.remove();
+    /** Resumes walls with blocks in a chunk that has just loaded. Called from CHUNK_LOAD. */
+    public static void onChunkLoad(ServerWorld world, ChunkPos pos) {
+        WallManager manager = BY_WORLD.get(world.getRegistryKey());
+        if (manager == null) return;
+        List<WallInstance> walls = manager.wallsByChunk.get(pos.toLong());
+        // Already counted (e.g. loaded when a wall subscribed): counting again would keep walls from ever suspending
+        if (walls == null || !manager.loadedWallChunks.add(pos.toLong())) return;
+        for (WallInstance w : walls) {
+            w.loadedChunks++;
+            manager.requeueParked(w);
+        }
+    }
+
+    /** Suspends walls whose last loaded chunk this was. Called from CHUNK_UNLOAD. */
+    public static void onChunkUnload(ServerWorld world, ChunkPos pos) {
+        WallManager manager = BY_WORLD.get(world.getRegistryKey());
+        if (manager == null) return;
+        List<WallInstance> walls = manager.wallsByChunk.get(pos.toLong());
+        if (walls == null || !manager.loadedWallChunks.remove(pos.toLong())) return;
+        for (WallInstance w : walls) {
+            w.loadedChunks--;
+        }
+    }
+
+    /** Looks up the active wall block at a position, or returns null if there is none. */
+    public static WallBlock getWallBlock(ServerWorld world, BlockPos pos) {
+        WallManager manager = BY_WORLD.get(world.getRegistryKey());
+        if (manager == null) return null;
+        long packed = pos.asLong();
+        WallInstance w = manager.standingOwner(packed);
+        return w == null ? null : new WallBlock(w.caster, w.layerOf(manager.index.indexOf(packed)));
+    }
+
+    /**
+     * Decides whether a player may break a block. Wall blocks are protected; creative players may
+     * still break them, which releases the block from its wall so it is not rebuilt or restored.
+     */
+    public static boolean onPlayerBreak(ServerWorld world, PlayerEntity player, BlockPos pos) {
+        WallManager manager = BY_WORLD.get(world.getRegistryKey());
+        if (manager == null) return true;
+        long packed = pos.asLong();
+        WallInstance w = manager.standingOwner(packed);
+        if (w == null) return true;
+        if (!player.isCreative()) return false;
+        w.release(manager.index.indexOf(packed));
+        manager.index.remove(packed);
+        return true;
+    }
+
+    /** Removes active wall blocks from the blocks an explosion is about to destroy. */
+    public static void protectFromExplosion(ServerWorld world, List<BlockPos> positions) {
+        WallManager manager = BY_WORLD.get(world.getRegistryKey());
+        if (manager == null || manager.index.isEmpty()) return;
+        positions.removeIf(pos -> manager.standingOwner(pos.asLong()) != null);
+    }
+
+    /**
+     * The wall owning a position, but only if the wall's block actually stands there. Positions are
+     * indexed for the whole life of a wall, including layers not yet risen and blocks it was not
+     * allowed to replace; whatever occupies those is ordinary terrain and must stay breakable.
+     */
+    private WallInstance standingOwner(long packed) {
+        WallInstance w = index.owner(packed);
+        if (w == null || !world.getBlockState(BlockPos.fromLong(packed)).isOf(w.material.getBlock())) return null;
+        return w;
+    }
+
+    /**
+     * Takes down walls left over from a crash or shutdown in the given world. Called from
+     * SERVER_STARTED; a world whose manager is first needed later recovers on that first use.
+     */
+    public static void recoverOrphans(ServerWorld world) {
+        get(world);
+    }
+
+    /** Ticks the manager for the given world, if one exists. Called from END_WORLD_TICK. */
+    public static void tick(ServerWorld world) {
+        WallManager manager = BY_WORLD.get(world.getRegistryKey());
+        if (manager != null) manager.tick();
+    }
+
+    /** Drops the manager of an unloading world. Its walls stay open in the journal and are taken down on next load. */
+    public static void onWorldUnload(ServerWorld world) {
+        WallManager manager = BY_WORLD.remove(world.getRegistryKey());
+        if (manager != null) manager.close();
+    }
+
+    public static void clearAll() {
+        BY_WORLD.values().forEach(WallManager::close);
+        BY_WORLD.clear();
+    }
+
+    private void close() {
+        if (journal != null) journal.close();
+    }
+
+    /** Opens the journal and takes down the walls it still lists as open. Runs once per manager. */
+    private void recover() {
+        if (recovered) return;
+        recovered = true;
+        journal = WallJournal.open(world);
+        if (journal != null) restoreOrphans(journal.takeOrphans());
+    }
+
+    private void restoreOrphans(List<WallJournal.OrphanWall> orphans) {
+        if (orphans.isEmpty()) return;
+        int restored = 0;
+        int skipped = 0;
+        for (WallJournal.OrphanWall wall : orphans) {
+            if (wall.material == null) {
+                // Its block no longer exists, so there is nothing of it left to recognise
+                skipped += wall.positions.length;
                 continue;
             }
+            for (int i = 0; i < wall.positions.length; i++) {
+                if (!world.getBlockState(BlockPos.fromLong(wall.positions[i])).isOf(wall.material.getBlock())) continue;
+                if (wall.unresolved.contains(i)) {
+                    skipped++; // the original no longer exists; leave the block rather than guess
+                    continue;
+                }
+                BlockState original = wall.replacedAt(i);
+                edits.setWithUpdates(wall.positions[i], original != null ? original : Blocks.AIR.getDefaultState());
+                restored++;
+            }
+        }
+        edits.apply(world);
+        MagicSystemMod.LOGGER.info("Took down {} leftover wall(s) ({} blocks) in {}", orphans.size(), restored, world.getRegistryKey().getValue());
+        if (skipped > 0) {
+            MagicSystemMod.LOGGER.warn("Left {} leftover wall block(s) in {} whose blocks no longer exist", skipped, world.getRegistryKey().getValue());
+        }
+    }
 
+    private void tick() {
+        if (active.isEmpty() && queue.isEmpty()) return;
+        Iterator<WallInstance> it = active.iterator();
+        while (it.hasNext()) {
+            WallInstance w = it.next();
+            if (w.loadedChunks <= 0) continue; // suspended: its timeline resumes when a chunk of it loads again
             w.ticks++;
 
-            // Phase 1: Rise animation over riseTicks
+            // Phase 1: Rise animation over riseTicks; only layers reached since last tick are queued
             if (w.ticks <= w.riseTicks) {
-                int layersToPlace = Math.max(1, (int)Math.ceil((w.height * (w.ticks / (double) w.riseTicks))));
-                placeLayers(world, w, layersToPlace);
+                int layersToPlace = Math.max(1, (int)Math.ceil((w.layerCount() * (w.ticks / (double) w.riseTicks))));
+                placeLayers(w, layersToPlace);
                 if (w.ticks % 5 == 0) {
-                    world.playSound(null, w.center, SoundEvents.BLOCK_STONE_STEP, SoundCategory.BLOCKS, 0.7f, 1.0f);
+                    Vec3d c = Vec3d.ofCenter(w.center);
+                    FxBudget.sound(world, FxBudget.Priority.NORMAL, c.x, c.y, c.z, SoundEvents.BLOCK_STONE_STEP, SoundCategory.BLOCKS, 0.7f, 1.0f);
                 }
             } else if (w.ticks <= w.riseTicks + w.holdTicks) {
-                // Ensure fully placed
-                placeLayers(world, w, w.height);
-                // Ambient smoke/sounds
-                if ((w.ticks % 5) == 0) {
-                    randomAmbient(world, w);
+                // Fully risen; repair a rotating sample instead of rescanning the whole wall
+                placeLayers(w, w.layerCount());
+                repairSample(w);
+                // Ambient smoke/sounds, skipped entirely while nobody is close enough to notice
+                if ((w.ticks % 5) == 0 && world.isPlayerInRange(w.center.getX() + 0.5, w.center.getY() + 0.5, w.center.getZ() + 0.5, AMBIENT_RANGE + w.width / 2.0)) {
+                    randomAmbient(w);
                 }
             } else {
                 // Dissolve
-                dissolve(world, w);
+                dissolve(w);
                 it.remove();
             }
         }
+        drainQueue(Math.max(1, MagicSystemMod.getConfig().wallBlockEditsPerTick));
+        // All of this tick's wall edits land together, section by section
+        edits.apply(world);
+        if (journal != null && wallsByChunk.isEmpty()) {
+            journal.reset(); // every wall is fully gone; keeps the journal from growing
+        }
     }
 
-    private static void placeLayers(ServerWorld world, WallInstance w, int layers) {
-        for (BlockPos pos : w.positions) {
-            int baseY = w.baseY.getOrDefault(new BlockPos(pos.getX(), 0, pos.getZ()), pos.getY());
-            int y = pos.getY();
-            int layerIndex = y - baseY; // computed column base
-            if (layerIndex < layers) {
-                BlockState current = world.getBlockState(pos);
-                if (current.isAir()) {
-                    world.setBlockState(pos, w.material);
-                } else if (current.isOf(w.material.getBlock())) {
-                    // Already our wall block; do nothing
-                } else if (w.allowReplace) {
-                    // Override non-air but remember original only once
-                    if (!w.replaced.containsKey(pos)) {
-                        w.replaced.put(pos, current);
-                    }
-                    world.setBlockState(pos, w.material);
+    /** Works through queued wall edits in order until the tick's budget is spent; the rest waits for the next tick. */
+    private void drainQueue(int budget) {
+        while (budget > 0 && !queue.isEmpty()) {
+            EditRun run = queue.peek();
+            while (budget > 0 && run.next != run.end) {
+                int i = run.next;
+                run.next += run.step;
+                if (run.place) {
+                    if (run.wall.dissolving) continue; // rise overtaken by the wall's own dissolve
+                    placeBlock(run.wall, i);
                 } else {
-                    // Not allowed to replace; skip this block
-                    continue;
+                    restoreBlock(run.wall, i);
                 }
-                // Rise particles (use simpler particles for compatibility)
-                Vec3d p = Vec3d.ofCenter(pos);
-                world.spawnParticles(ParticleTypes.CRIT, p.x, p.y, p.z, 3, 0.1, 0.1, 0.1, 0.02);
+                budget--;
+            }
+            if (run.next == run.end) {
+                queue.poll();
+                if (!run.place && --run.wall.restoreRuns == 0 && run.wall.parked == null) finishDissolve(run.wall);
             }
         }
     }
 
-    private static void randomAmbient(ServerWorld world, WallInstance w) {
+    /** Queues every layer below {@code layers} that has not been queued yet, advancing the wall's cursor. */
+    private void placeLayers(WallInstance w, int layers) {
+        int target = Math.min(layers, w.layerCount());
+        for (int layer = w.placedLayers; layer < target; layer++) {
+            queue.add(new EditRun(w, true, w.layerStart[layer], w.layerStart[layer + 1], 1));
+        }
+        w.placedLayers = Math.max(w.placedLayers, target);
+    }
+
+    /** Re-checks the next few blocks of a standing wall, so broken blocks come back within a few ticks. */
+    private void repairSample(WallInstance w) {
+        int n = w.size();
+        for (int k = 0; k < Math.min(REPAIR_SAMPLES_PER_TICK, n); k++) {
+            int i = w.repairCursor;
+            w.repairCursor = (w.repairCursor + 1) % n;
+            if (!w.isReleased(i) && isLoaded(w.positions[i]) && !world.getBlockState(BlockPos.fromLong(w.positions[i])).isOf(w.material.getBlock())) {
+                queue.add(new EditRun(w, true, i, i + 1, 1));
+            }
+        }
+    }
+
+    private void placeBlock(WallInstance w, int index) {
+        // Blocks in unloaded chunks are skipped rather than forcing a load; repairs fill them in later
+        if (w.isReleased(index) || !isLoaded(w.positions[index])) return;
+        BlockPos pos = BlockPos.fromLong(w.positions[index]);
+        BlockState current = world.getBlockState(pos);
+        if (current.isOf(w.material.getBlock())) {
+            return; // Already our wall block
+        }
+        if (!current.isAir()) {
+            if (!w.allowReplace) return; // Not allowed to replace; skip this block
+            // Override non-air but remember original only once
+            if (w.replacedAt(index) == null) {
+                w.setReplaced(index, current);
+                if (journal != null) journal.replace(w.journalId, index, current);
+            }
+        }
+        edits.set(w.positions[index], w.material);
+        // Rise particles (use simpler particles for compatibility)
+        FxBudget.particles(world, FxBudget.Priority.NORMAL, ParticleTypes.CRIT, pos.getX() + 0.5, pos.getY() + 0.5, pos.getZ() + 0.5, 3, 0.1, 0.1, 0.1, 0.02);
+    }
+
+    private void randomAmbient(WallInstance w) {
         net.minecraft.util.math.random.Random rand = world.getRandom();
-        for (BlockPos pos : w.positions) {
+        for (long packed : w.positions) {
             if (rand.nextFloat() < 0.10f) {
-                Vec3d top = Vec3d.ofCenter(pos.up());
-                world.spawnParticles(ParticleTypes.SMOKE, top.x, top.y, top.z, 1, 0.02, 0.05, 0.02, 0.01);
+                double x = BlockPos.unpackLongX(packed) + 0.5;
+                double y = BlockPos.unpackLongY(packed) + 0.5;
+                double z = BlockPos.unpackLongZ(packed) + 0.5;
+                FxBudget.particles(world, FxBudget.Priority.LOW, ParticleTypes.SMOKE, x, y + 1.0, z, 1, 0.02, 0.05, 0.02, 0.01);
                 if (rand.nextFloat() < 0.05f) {
-                    world.playSound(null, pos, SoundEvents.BLOCK_GRAVEL_STEP, SoundCategory.BLOCKS, 0.5f, 1.0f);
+                    FxBudget.sound(world, FxBudget.Priority.LOW, x, y, z, w.material.getSoundGroup().getStepSound(), SoundCategory.BLOCKS, 0.5f, 1.0f);
                 }
             }
         }
     }
 
-    private static void dissolve(ServerWorld world, WallInstance w) {
+    /** Starts taking a wall down; its blocks are restored top layer first as the edit queue drains. */
+    private void dissolve(WallInstance w) {
         // Center dissolve sound
-        world.playSound(null, w.center, SoundEvents.BLOCK_STONE_BREAK, SoundCategory.BLOCKS, 1.0f, 1.0f);
-        for (BlockPos pos : w.positions) {
-            if (world.getBlockState(pos).isOf(w.material.getBlock())) {
-                // Restore replaced block if any; else air
-                BlockState original = w.replaced.get(pos);
-                if (original != null) {
-                    world.setBlockState(pos, original);
-                } else {
-                    world.setBlockState(pos, Blocks.AIR.getDefaultState());
-                }
-                Vec3d p = Vec3d.ofCenter(pos);
-                world.spawnParticles(ParticleTypes.CRIT, p.x, p.y, p.z, 6, 0.15, 0.15, 0.15, 0.02);
-                world.spawnParticles(ParticleTypes.CLOUD, p.x, p.y, p.z, 2, 0.10, 0.10, 0.10, 0.01);
+        Vec3d c = Vec3d.ofCenter(w.center);
+        FxBudget.sound(world, FxBudget.Priority.HIGH, c.x, c.y, c.z, SoundEvents.BLOCK_STONE_BREAK, SoundCategory.BLOCKS, 1.0f, 1.0f);
+        w.dissolving = true;
+        w.restoreRuns++;
+        queue.add(new EditRun(w, false, w.size() - 1, -1, -1));
+    }
+
+    private void restoreBlock(WallInstance w, int index) {
+        if (w.isReleased(index)) return;
+        if (!isLoaded(w.positions[index])) {
+            w.park(index); // restored once its chunk loads again
+            return;
+        }
+        BlockPos pos = BlockPos.fromLong(w.positions[index]);
+        if (world.getBlockState(pos).isOf(w.material.getBlock())) {
+            // Restore replaced block if any; else air
+            BlockState original = w.replacedAt(index);
+            edits.setWithUpdates(w.positions[index], original != null ? original : Blocks.AIR.getDefaultState());
+            double x = pos.getX() + 0.5, y = pos.getY() + 0.5, z = pos.getZ() + 0.5;
+            FxBudget.particles(world, FxBudget.Priority.HIGH, ParticleTypes.CRIT, x, y, z, 6, 0.15, 0.15, 0.15, 0.02);
+            FxBudget.particles(world, FxBudget.Priority.HIGH, ParticleTypes.CLOUD, x, y, z, 2, 0.10, 0.10, 0.10, 0.01);
+        }
+    }
+
+    /** Called once the last block of a dissolving wall has been restored; until then its blocks stay indexed and journaled. */
+    private void finishDissolve(WallInstance w) {
+        if (journal != null) journal.dissolve(w.journalId);
+        index.removeAll(w.positions, w);
+        for (long chunk : w.chunks) {
+            List<WallInstance> walls = wallsByChunk.get(chunk);
+            walls.remove(w);
+            if (walls.isEmpty()) {
+                wallsByChunk.remove(chunk);
+                loadedWallChunks.remove(chunk);
+            }
+        }
+    }
+
+    private boolean isLoaded(long packedPos) {
+        return loadedWallChunks.contains(ChunkPos.toLong(BlockPos.unpackLongX(packedPos) >> 4, BlockPos.unpackLongZ(packedPos) >> 4));
+    }
+
+    /** Registers a new wall's chunks. The world is asked once per new chunk; after that, load events keep count. */
+    private void subscribeChunks(WallInstance w) {
+        for (long chunk : w.chunks) {
+            List<WallInstance> walls = wallsByChunk.get(chunk);
+            if (walls == null) {
+                walls = new ArrayList<>();
+                wallsByChunk.put(chunk, walls);
+                if (world.isChunkLoaded(ChunkPos.getPackedX(chunk), ChunkPos.getPackedZ(chunk))) loadedWallChunks.add(chunk);
             }
+            walls.add(w);
+            if (loadedWallChunks.contains(chunk)) w.loadedChunks++;
         }
     }
 
-    private static ServerWorld findWorld(MinecraftServer server, String key) {
-        for (ServerWorld w : server.getWorlds()) {
-            if (w.getRegistryKey().getValue().toString().equals(key)) return w;
+    /** Queues the parked restores of a dissolving wall again; those still in unloaded chunks park again. */
+    private void requeueParked(WallInstance w) {
+        if (w.parked == null) return;
+        IntArrayList parked = w.parked;
+        w.parked = null;
+        for (int i = parked.size() - 1; i >= 0; i--) {
+            int idx = parked.getInt(i);
+            w.restoreRuns++;
+            queue.add(new EditRun(w, false, idx, idx - 1, -1));
         }
-        return null;
     }
 
+    /**
+     * A queued stretch of one wall's blocks, walked from {@code next} towards {@code end} (exclusive)
+     * in {@code step}s: one layer of a rise, a single repair, or a whole wall dissolving top down.
+     */
+    private static final class EditRun {
+        final WallInstance wall;
+        final boolean place; // place wall blocks, or restore originals
+        final int end;
+        final int step;
+        int next;
+
+        EditRun(WallInstance wall, boolean place, int next, int end, int step) {
+            this.wall = wall;
+            this.place = place;
+            this.next = next;
+            this.end = end;
+            this.step = step;
+        }
+    }
+
+    /** An active wall block as seen from outside: who cast the wall, and which layer (from the bottom) the block is in. */
+    public record WallBlock(UUID caster, int layer) {
+    }
+
+    /**
+     * A wall's blocks in compact form: packed positions ordered by layer, and the originals it
+     * replaced as a small palette of distinct states plus one index per block (0 = nothing replaced).
+     */
     private static final class WallInstance {
-        final String worldKey;
-        final List<BlockPos> positions;
+        final long[] positions; // BlockPos.asLong, ordered by layer, bottom first
+        final int[] layerStart; // positions of layer L are [layerStart[L], layerStart[L + 1])
         final int width;
         final int height;
         final int riseTicks;
         final int holdTicks;
         final BlockPos center;
-        final Map<BlockPos, Integer> baseY = new HashMap<>();
-        final Map<BlockPos, BlockState> replaced = new HashMap<>();
         final BlockState material;
         final boolean allowReplace;
+        final UUID caster; // may be null for walls not cast by a player
+        private final List<BlockState> palette = new ArrayList<>(); // replaced originals, index + 1 in replacedIndex
+        private short[] replacedIndex; // allocated on first replacement; most walls rise through air
+        private BitSet released; // blocks given up by the wall (broken in creative); allocated on first release
+        final long[] chunks; // distinct ChunkPos.toLong of the wall's blocks
+        int loadedChunks = 0;
+        IntArrayList parked; // restores waiting for their chunk to load; null when none
+        int journalId;
+        boolean dissolving = false;
+        int restoreRuns = 0; // queued restore runs; the wall is gone once none are left and nothing is parked
         int ticks = 0;
+        int placedLayers = 0;
+        int repairCursor = 0;
 
-        WallInstance(String worldKey, List<BlockPos> positions, int width, int height, int riseTicks, int holdTicks, BlockPos center, BlockState material, boolean allowReplace) {
-            this.worldKey = worldKey;
-            this.positions = positions;
+        WallInstance(long[] positions, int width, int height, int riseTicks, int holdTicks, BlockPos center, BlockState material, boolean allowReplace, UUID caster) {
+            this.caster = caster;
             this.width = width;
             this.height = height;
             this.riseTicks = Math.max(1, riseTicks);
@@ -158,13 +469,82 @@ public final class WallManager {
             this.center = center;
             this.material = material;
             this.allowReplace = allowReplace;
-            // compute baseY per column (x,z)
-            for (BlockPos p : positions) {
-                BlockPos key = new BlockPos(p.getX(), 0, p.getZ());
-                baseY.merge(key, p.getY(), Math::min);
+
+            // Layer of a block = its height above the lowest block of the wall, so shapes rise from the ground up
+            int n = positions.length;
+            int baseY = Integer.MAX_VALUE;
+            for (long p : positions) {
+                baseY = Math.min(baseY, BlockPos.unpackLongY(p));
+            }
+            int[] layers = new int[n];
+            int layerCount = 0;
+            for (int i = 0; i < n; i++) {
+                layers[i] = BlockPos.unpackLongY(positions[i]) - baseY;
+                layerCount = Math.max(layerCount, layers[i] + 1);
+            }
+
+            // Counting sort by layer so each layer is a contiguous run
+            int[] starts = new int[layerCount + 1];
+            for (int layer : layers) starts[layer + 1]++;
+            for (int l = 0; l < layerCount; l++) starts[l + 1] += starts[l];
+            int[] fill = Arrays.copyOf(starts, layerCount);
+            this.positions = new long[n];
+            for (int i = 0; i < n; i++) {
+                this.positions[fill[layers[i]]++] = positions[i];
             }
+            this.layerStart = starts;
+
+            LongOpenHashSet chunkSet = new LongOpenHashSet();
+            for (long p : positions) {
+                chunkSet.add(ChunkPos.toLong(BlockPos.unpackLongX(p) >> 4, BlockPos.unpackLongZ(p) >> 4));
+            }
+            this.chunks = chunkSet.toLongArray();
+        }
+
+        void park(int index) {
+            if (parked == null) parked = new IntArrayList();
+            parked.add(index);
         }
-    }
-}
 
+        int size() {
+            return positions.length;
+        }
+
+        int layerCount() {
+            return layerStart.length - 1;
+        }
 
+        int layerOf(int index) {
+            // Equal starts belong to empty layers (gaps in a shape); the block is in the last layer starting at or before it
+            int l = Arrays.binarySearch(layerStart, index);
+            if (l < 0) return -l - 2;
+            while (l + 1 < layerCount() && layerStart[l + 1] == index) l++;
+            return l;
+        }
+
+        boolean isReleased(int index) {
+            return released != null && released.get(index);
+        }
+
+        void release(int index) {
+            if (released == null) released = new BitSet(positions.length);
+            released.set(index);
+        }
+
+        BlockState replacedAt(int index) {
+            if (replacedIndex == null || replacedIndex[index] == 0) return null;
+            return palette.get(replacedIndex[index] - 1);
+        }
+
+        void setReplaced(int index, BlockState original) {
+            int id = palette.indexOf(original);
+            if (id < 0) {
+                if (palette.size() >= Short.MAX_VALUE) return; // absurdly varied terrain; leave it unrecorded
+                palette.add(original);
+                id = palette.size() - 1;
+            }
+            if (replacedIndex == null) replacedIndex = new short[positions.length];
+            replacedIndex[index] = (short) (id + 1);
+        }
+    }
+}
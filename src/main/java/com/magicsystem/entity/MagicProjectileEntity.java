@@ -0,0 +1,83 @@
+package com.magicsystem.entity;
+
+import com.magicsystem.effects.ProjectileParams;
+import net.minecraft.entity.EntityType;
+import net.minecraft.entity.FlyingItemEntity;
+import net.minecraft.entity.LivingEntity;
+import net.minecraft.entity.damage.DamageSource;
+import net.minecraft.entity.data.DataTracker;
+import net.minecraft.entity.data.TrackedData;
+import net.minecraft.entity.data.TrackedDataHandlerRegistry;
+import net.minecraft.entity.projectile.ProjectileEntity;
+import net.minecraft.entity.projectile.ProjectileUtil;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.hit.HitResult;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.World;
+
+/**
+ * Lightweight spell projectile. Gravity and drag come from {@link ProjectileParams} and are synced
+ * once through the data tracker, so client and server integrate the same trajectory and the
+ * tracker only has to send spawn, removal and occasional position corrections.
+ */
+public class MagicProjectileEntity extends ProjectileEntity implements FlyingItemEntity {
+    private static final TrackedData<Float> GRAVITY = DataTracker.registerData(MagicProjectileEntity.class, TrackedDataHandlerRegistry.FLOAT);
+    private static final TrackedData<Float> DRAG = DataTracker.registerData(MagicProjectileEntity.class, TrackedDataHandlerRegistry.FLOAT);
+    private static final ItemStack DISPLAY_STACK = new ItemStack(Items.FIRE_CHARGE);
+
+    public MagicProjectileEntity(EntityType<? extends MagicProjectileEntity> type, World world) {
+        super(type, world);
+    }
+
+    public MagicProjectileEntity(World world, LivingEntity owner, ProjectileParams params) {
+        this(MagicSystemEntities.MAGIC_PROJECTILE, world);
+        setOwner(owner);
+        this.dataTracker.set(GRAVITY, (float) params.gravityPerTick);
+        this.dataTracker.set(DRAG, (float) params.drag);
+    }
+
+    @Override
+    protected void initDataTracker(DataTracker.Builder builder) {
+        builder.add(GRAVITY, 0.01f);
+        builder.add(DRAG, 0.996f);
+    }
+
+    @Override
+    public void tick() {
+        super.tick();
+
+        if (!getWorld().isClient) {
+            HitResult hit = ProjectileUtil.getCollision(this, this::canHit);
+            if (hit.getType() != HitResult.Type.MISS) {
+                // No deflection or vanilla explosion: EffectsManager handles the impact from here
+                onCollision(hit);
+                discard();
+                return;
+            }
+        }
+
+        // Both sides read the same tracked floats, so the integration is identical
+        Vec3d v = getVelocity();
+        setPosition(getX() + v.x, getY() + v.y, getZ() + v.z);
+        double drag = this.dataTracker.get(DRAG);
+        setVelocity(v.x * drag, (v.y - this.dataTracker.get(GRAVITY)) * drag, v.z * drag);
+        ProjectileUtil.setRotationFromVelocity(this, 0.2f);
+    }
+
+    @Override
+    public boolean damage(ServerWorld world, DamageSource source, float amount) {
+        return false; // cannot be hit back like a vanilla fireball
+    }
+
+    @Override
+    public boolean shouldSave() {
+        return false; // short-lived; never written to chunks
+    }
+
+    @Override
+    public ItemStack getStack() {
+        return DISPLAY_STACK;
+    }
+}
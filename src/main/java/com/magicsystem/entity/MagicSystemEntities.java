@@ -0,0 +1,33 @@
+package com.magicsystem.entity;
+
+import com.magicsystem.MagicSystemMod;
+import net.minecraft.entity.EntityType;
+import net.minecraft.entity.SpawnGroup;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.Registry;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.registry.RegistryKeys;
+
+public final class MagicSystemEntities {
+    public static final RegistryKey<EntityType<?>> MAGIC_PROJECTILE_KEY =
+        RegistryKey.of(RegistryKeys.ENTITY_TYPE, MagicSystemMod.id("magic_projectile"));
+
+    // Clients integrate the ballistics themselves: no per-tick velocity sync, position corrections once a second
+    public static final EntityType<MagicProjectileEntity> MAGIC_PROJECTILE = Registry.register(
+        Registries.ENTITY_TYPE,
+        MAGIC_PROJECTILE_KEY,
+        EntityType.Builder.<MagicProjectileEntity>create(MagicProjectileEntity::new, SpawnGroup.MISC)
+            .dimensions(0.5f, 0.5f)
+            .maxTrackingRange(4)
+            .trackingTickInterval(20)
+            .alwaysUpdateVelocity(false)
+            .build(MAGIC_PROJECTILE_KEY)
+    );
+
+    private MagicSystemEntities() {}
+
+    public static void register() {
+        // Touching the class runs the static registrations
+        MagicSystemMod.LOGGER.info("Magic System entities registered");
+    }
+}
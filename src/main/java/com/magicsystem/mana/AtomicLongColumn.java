@@ -0,0 +1,49 @@
+package com.magicsystem.mana;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * Growable column of longs with volatile reads and compare-and-set on each element. Storage is
+ * split into fixed-size pages that never move: growing only copies the page directory, so a thread
+ * that looked up an element's page before a grow still reads and updates the live value.
+ */
+final class AtomicLongColumn {
+    private static final int PAGE_BITS = 6;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+    private static final VarHandle ELEMENT = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private volatile long[][] pages = new long[0][];
+
+    /** Makes indices [0, size) addressable. Server thread only. */
+    void ensureCapacity(int size) {
+        long[][] current = pages;
+        int needed = (size + PAGE_SIZE - 1) >>> PAGE_BITS;
+        if (needed <= current.length) return;
+        long[][] grown = Arrays.copyOf(current, needed);
+        for (int i = current.length; i < needed; i++) {
+            grown[i] = new long[PAGE_SIZE];
+        }
+        pages = grown;
+    }
+
+    long get(int index) {
+        return (long) ELEMENT.getVolatile(pages[index >>> PAGE_BITS], index & PAGE_MASK);
+    }
+
+    void set(int index, long value) {
+        ELEMENT.setVolatile(pages[index >>> PAGE_BITS], index & PAGE_MASK, value);
+    }
+
+    boolean compareAndSet(int index, long expected, long value) {
+        return ELEMENT.compareAndSet(pages[index >>> PAGE_BITS], index & PAGE_MASK, expected, value);
+    }
+
+    void fill(int from, int to, long value) {
+        for (int i = from; i < to; i++) {
+            set(i, value);
+        }
+    }
+}
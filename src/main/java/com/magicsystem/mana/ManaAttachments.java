@@ -0,0 +1,20 @@
+package com.magicsystem.mana;
+
+import com.magicsystem.MagicSystemMod;
+import net.fabricmc.fabric.api.attachment.v1.AttachmentRegistry;
+import net.fabricmc.fabric.api.attachment.v1.AttachmentType;
+
+public final class ManaAttachments {
+    // Saved in the player's data; the live values are in PlayerStateTable and copied here before each save
+    public static final AttachmentType<StoredMana> MANA = AttachmentRegistry.create(
+        MagicSystemMod.id("mana"),
+        builder -> builder.persistent(StoredMana.CODEC).copyOnDeath()
+    );
+
+    private ManaAttachments() {}
+
+    public static void register() {
+        // Touching the class runs the static registrations
+        MagicSystemMod.LOGGER.info("Magic System attachments registered");
+    }
+}
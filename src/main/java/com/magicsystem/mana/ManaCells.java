@@ -0,0 +1,153 @@
+package com.magicsystem.mana;
+
+/**
+ * The mana of every player slot, one atomic word per slot: an 8-bit occupant generation, 24 bits
+ * of mana and the 32-bit server tick the mana refers to (the regen anchor). Every change is a
+ * compare-and-set on the whole word, so spending, restoring and regenerating are linearizable from
+ * any thread without locks.
+ *
+ * The generation ties a caller to the occupant it looked up. Each time a slot is vacated or
+ * occupied its generation moves on, and every operation takes the generation the caller expects
+ * and fails if the word holds another; a caller that looked up a player who has since left can
+ * therefore never touch the mana of whoever got the slot next. (With each reuse moving it on twice,
+ * it would take 128 reuses of the same slot within one call for a generation to come round again.)
+ */
+final class ManaCells {
+    /** Largest mana a slot can hold. */
+    static final int MAX_MANA = (1 << 24) - 1;
+    private static final int GENERATION_MASK = 0xFF;
+
+    private final AtomicLongColumn words = new AtomicLongColumn();
+
+    /** Makes slots [0, size) addressable. Server thread only. */
+    void ensureCapacity(int size) {
+        words.ensureCapacity(size);
+    }
+
+    static long pack(int generation, int mana, int anchorTick) {
+        return ((long) (generation & GENERATION_MASK) << 56) | ((long) (mana & MAX_MANA) << 32) | (anchorTick & 0xFFFFFFFFL);
+    }
+
+    static int generationOf(long word) {
+        return (int) (word >>> 56) & GENERATION_MASK;
+    }
+
+    static int manaOf(long word) {
+        return (int) (word >>> 32) & MAX_MANA;
+    }
+
+    static int anchorOf(long word) {
+        return (int) word;
+    }
+
+    /** The slot's whole word, read atomically; see {@link #manaOf} and {@link #anchorOf}. */
+    long word(int slot) {
+        return words.get(slot);
+    }
+
+    int generation(int slot) {
+        return generationOf(words.get(slot));
+    }
+
+    /** Stored mana as of the regen anchor; use {@link #regenerate} for the current value. */
+    int mana(int slot) {
+        return manaOf(words.get(slot));
+    }
+
+    int anchor(int slot) {
+        return anchorOf(words.get(slot));
+    }
+
+    /** Hands a slot to a new occupant and returns the occupant's generation. Server thread only. */
+    int occupy(int slot, int mana, int tick) {
+        while (true) {
+            long word = words.get(slot);
+            int generation = (generationOf(word) + 1) & GENERATION_MASK;
+            if (words.compareAndSet(slot, word, pack(generation, clamp(mana), tick))) return generation;
+        }
+    }
+
+    /**
+     * Ends the current occupancy: regenerates one last time, moves the generation on so callers
+     * still holding the old one fail from now on, and returns the occupant's final mana.
+     * Server thread only.
+     */
+    int vacate(int slot, int max, int now, int rate, int interval) {
+        while (true) {
+            long word = words.get(slot);
+            int mana = manaOf(regenerate(word, max, now, rate, interval));
+            if (words.compareAndSet(slot, word, pack(generationOf(word) + 1, 0, now))) return mana;
+        }
+    }
+
+    /** Overwrites mana and restarts regen from {@code tick}. Returns false if the slot has another occupant. */
+    boolean set(int slot, int generation, int mana, int tick) {
+        while (true) {
+            long word = words.get(slot);
+            if (generationOf(word) != generation) return false;
+            if (words.compareAndSet(slot, word, pack(generation, clamp(mana), tick))) return true;
+        }
+    }
+
+    /**
+     * Applies the regen owed up to {@code now} to a word. The anchor keeps its phase while mana is
+     * below max, and moves to {@code now} once full, so regen after the next spend starts a fresh
+     * interval.
+     */
+    static long regenerate(long word, int max, int now, int rate, int interval) {
+        int mana = manaOf(word);
+        int anchor = anchorOf(word);
+        if (mana < max && rate > 0 && interval > 0 && now > anchor) {
+            int steps = (now - anchor) / interval;
+            mana = (int) Math.min(max, mana + (long) steps * rate);
+            anchor += steps * interval;
+        }
+        if (mana >= max) {
+            anchor = now;
+        }
+        return pack(generationOf(word), mana, anchor);
+    }
+
+    /** Folds the regen owed up to {@code now} into the slot and returns its current mana, or -1 if the slot has another occupant. */
+    int regenerate(int slot, int generation, int max, int now, int rate, int interval) {
+        while (true) {
+            long word = words.get(slot);
+            if (generationOf(word) != generation) return -1;
+            long next = regenerate(word, max, now, rate, interval);
+            if (word == next || words.compareAndSet(slot, word, next)) return manaOf(next);
+        }
+    }
+
+    /**
+     * Regenerates and spends {@code amount} in one atomic step. Returns false, spending nothing, if
+     * there is not enough mana or the slot has another occupant.
+     */
+    boolean tryConsume(int slot, int generation, int amount, int max, int now, int rate, int interval) {
+        while (true) {
+            long word = words.get(slot);
+            if (generationOf(word) != generation) return false;
+            long regenerated = regenerate(word, max, now, rate, interval);
+            int mana = manaOf(regenerated);
+            if (mana < amount) {
+                if (word == regenerated || words.compareAndSet(slot, word, regenerated)) return false;
+                continue;
+            }
+            if (words.compareAndSet(slot, word, pack(generation, mana - amount, anchorOf(regenerated)))) return true;
+        }
+    }
+
+    /** Regenerates, then adds {@code amount} up to max, in one atomic step. Returns the new mana, or -1 if the slot has another occupant. */
+    int restore(int slot, int generation, int amount, int max, int now, int rate, int interval) {
+        while (true) {
+            long word = words.get(slot);
+            if (generationOf(word) != generation) return -1;
+            long regenerated = regenerate(word, max, now, rate, interval);
+            int mana = clamp((int) Math.min((long) manaOf(regenerated) + amount, max));
+            if (words.compareAndSet(slot, word, pack(generation, mana, anchorOf(regenerated)))) return mana;
+        }
+    }
+
+    private static int clamp(int mana) {
+        return Math.max(0, Math.min(mana, MAX_MANA));
+    }
+}
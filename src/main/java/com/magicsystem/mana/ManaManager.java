@@ -3,22 +3,24 @@ package com.magicsystem.mana;
 import com.magicsystem.MagicSystemMod;
 import com.magicsystem.config.MagicSystemConfig;
 import com.magicsystem.network.MagicSystemNetworking;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
 import net.fabricmc.fabric.api.entity.event.v1.ServerPlayerEvents;
-import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.network.ServerPlayerEntity;
-import net.minecraft.util.Identifier;
 
-import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
 public class ManaManager {
     private final MagicSystemConfig config;
-    private final Map<UUID, ManaData> playerMana = new ConcurrentHashMap<>();
-    private int tickCounter = 0;
+    // Mana and cooldown state of every online player, one slot each
+    private final PlayerStateTable state = new PlayerStateTable();
+    // Slots with unsent mana changes; flushed from tick() at most once per tick each
+    private final IntArrayList dirtySlots = new IntArrayList();
+    // Server tick as of the last tick(); the clock lazy regeneration is measured against.
+    // Volatile, like server, because mana may be spent or restored from other threads
+    private volatile int currentTick = 0;
+    private volatile MinecraftServer server;
     
     public ManaManager(MagicSystemConfig config) {
         this.config = config;
@@ -32,140 +34,339 @@ public class ManaManager {
             onPlayerLeave(handler.player);
         });
         
+        // Respawning replaces the player entity; the new one takes over the slot
+        ServerPlayerEvents.COPY_FROM.register((oldPlayer, newPlayer, alive) -> {
+            onPlayerCopied(oldPlayer, newPlayer);
+        });
+        
         // Register respawn event to reset mana upon death
         ServerPlayerEvents.AFTER_RESPAWN.register((oldPlayer, newPlayer, alive) -> {
             onPlayerRespawn(newPlayer, alive);
         });
     }
     
-    public boolean hasMana(PlayerEntity player, int amount) {
-        ManaData manaData = getManaData(player.getUuid());
-        return manaData.getCurrentMana() >= amount;
+    public PlayerStateTable getStateTable() {
+        return state;
+    }
+    
+    /** The player's slot in the state table, assigning one if the player has none yet. */
+    public int slotOf(ServerPlayerEntity player) {
+        PlayerStateAccess access = (PlayerStateAccess) player;
+        int slot = access.magicsystem$getStateSlot();
+        if (slot < 0) {
+            slot = state.allocate(player, config.baseMana, currentTick);
+            access.magicsystem$setStateGeneration(state.generation(slot));
+            access.magicsystem$setStateSlot(slot);
+        }
+        return slot;
+    }
+    
+    /** The player's slot; off the server thread a player without one gets -1 instead of a new slot. */
+    public int liveSlot(ServerPlayerEntity player) {
+        if (isOffThread()) return ((PlayerStateAccess) player).magicsystem$getStateSlot();
+        return slotOf(player);
     }
     
-    public boolean consumeMana(PlayerEntity player, int amount) {
-        ManaData manaData = getManaData(player.getUuid());
-        if (manaData.getCurrentMana() >= amount) {
-            manaData.setCurrentMana(manaData.getCurrentMana() - amount);
-            updateMana(player);
-            return true;
+    /** The generation of the occupancy behind {@link #liveSlot}, for calls that must not outlive it. */
+    public int generationOf(ServerPlayerEntity player) {
+        return ((PlayerStateAccess) player).magicsystem$getStateGeneration();
+    }
+    
+    public boolean hasMana(ServerPlayerEntity player, int amount) {
+        return getCurrentMana(player) >= amount;
+    }
+    
+    /**
+     * Spends {@code amount} mana if the player has it. Safe to call from any thread: the check and the
+     * spend are one atomic step, so concurrent callers can never spend the same mana twice, and a
+     * call racing the player's logout spends nothing rather than touching the slot's next occupant.
+     */
+    public boolean tryConsume(ServerPlayerEntity player, int amount) {
+        int slot = liveSlot(player);
+        if (slot < 0) return false;
+        int generation = ((PlayerStateAccess) player).magicsystem$getStateGeneration();
+        if (!state.tryConsume(slot, generation, amount, maxOf(slot, player), currentTick, config.manaRegenerationRate, config.manaRegenerationInterval)) {
+            return false;
         }
-        return false;
+        markDirty(slot, generation);
+        return true;
     }
     
-    public void restoreMana(PlayerEntity player, int amount) {
-        ManaData manaData = getManaData(player.getUuid());
-        int newMana = Math.min(manaData.getCurrentMana() + amount, getMaxMana(player));
-        manaData.setCurrentMana(newMana);
-        updateMana(player);
+    /** Adds mana up to the player's max and returns the new value. Safe to call from any thread. */
+    public int restore(ServerPlayerEntity player, int amount) {
+        int slot = liveSlot(player);
+        if (slot < 0) return 0;
+        int generation = ((PlayerStateAccess) player).magicsystem$getStateGeneration();
+        int mana = state.restore(slot, generation, amount, maxOf(slot, player), currentTick, config.manaRegenerationRate, config.manaRegenerationInterval);
+        if (mana < 0) return 0;
+        markDirty(slot, generation);
+        return mana;
     }
     
-    public void setMana(PlayerEntity player, int amount) {
-        ManaData manaData = getManaData(player.getUuid());
-        manaData.setCurrentMana(Math.min(amount, getMaxMana(player)));
-        updateMana(player);
+    public boolean consumeMana(ServerPlayerEntity player, int amount) {
+        return tryConsume(player, amount);
     }
     
-    public int getCurrentMana(PlayerEntity player) {
-        return getManaData(player.getUuid()).getCurrentMana();
+    public void restoreMana(ServerPlayerEntity player, int amount) {
+        restore(player, amount);
+    }
+    
+    public void setMana(ServerPlayerEntity player, int amount) {
+        int slot = liveSlot(player);
+        if (slot < 0) return;
+        int generation = ((PlayerStateAccess) player).magicsystem$getStateGeneration();
+        if (state.setMana(slot, generation, Math.min(amount, maxOf(slot, player)), currentTick)) {
+            markDirty(slot, generation);
+        }
     }
     
-    public int getMaxMana(PlayerEntity player) {
-        return config.baseMana + (player.experienceLevel * config.manaPerLevel);
+    public int getCurrentMana(ServerPlayerEntity player) {
+        int slot = liveSlot(player);
+        if (slot < 0) return 0;
+        int generation = ((PlayerStateAccess) player).magicsystem$getStateGeneration();
+        int mana = state.regenerate(slot, generation, maxOf(slot, player), currentTick, config.manaRegenerationRate, config.manaRegenerationInterval);
+        return Math.max(mana, 0);
     }
     
-    public float getManaPercentage(PlayerEntity player) {
+    public int getMaxMana(ServerPlayerEntity player) {
+        int slot = liveSlot(player);
+        return slot < 0 ? maxFor(player) : maxOf(slot, player);
+    }
+    
+    public float getManaPercentage(ServerPlayerEntity player) {
         return (float) getCurrentMana(player) / getMaxMana(player);
     }
     
-    private ManaData getManaData(UUID playerId) {
-        return playerMana.computeIfAbsent(playerId, k -> new ManaData(config.baseMana));
+    private boolean isOffThread() {
+        MinecraftServer s = server;
+        return s != null && !s.isOnThread();
+    }
+    
+    /**
+     * Max mana of the player in a slot. Off the server thread it is computed from the player's level
+     * and the table is left alone; the cache belongs to the server thread.
+     */
+    private int maxOf(int slot, ServerPlayerEntity player) {
+        return isOffThread() ? maxFor(player) : maxOf(slot);
+    }
+    
+    /** Max mana of a slot, recomputed from the experience level after a level change. Server thread only. */
+    private int maxOf(int slot) {
+        int max = state.maxMana[slot];
+        if (max < 0) {
+            max = maxFor(state.player[slot]);
+            state.maxMana[slot] = max;
+        }
+        return max;
+    }
+    
+    private int maxFor(ServerPlayerEntity player) {
+        return (int) Math.min(config.baseMana + (long) player.experienceLevel * config.manaPerLevel, ManaCells.MAX_MANA);
+    }
+    
+    /** Folds the regen owed so far into the slot and returns its current mana. Server thread only. */
+    private int regenerate(int slot) {
+        return state.regenerate(slot, state.generation(slot), maxOf(slot), currentTick, config.manaRegenerationRate, config.manaRegenerationInterval);
+    }
+    
+    /**
+     * Called just before a player's experience level changes. Settles regen against the old max,
+     * so a level-up does not pay out regen for time spent full, and flags the new max for the client.
+     */
+    public void onLevelChanging(ServerPlayerEntity player) {
+        int slot = ((PlayerStateAccess) player).magicsystem$getStateSlot();
+        if (slot < 0) return;
+        regenerate(slot);
+        state.maxMana[slot] = -1;
+        markDirty(slot);
     }
     
-    private void updateMana(PlayerEntity player) {
-        if (player instanceof ServerPlayerEntity serverPlayer) {
-            // Sync mana to client
-            ManaData manaData = getManaData(player.getUuid());
-            int maxMana = getMaxMana(player);
-            
-            MagicSystemNetworking.sendManaUpdate(serverPlayer, manaData.getCurrentMana(), maxMana);
-            
-            MagicSystemMod.LOGGER.debug("Updated mana for player {}: {}/{}", 
-                player.getName().getString(), manaData.getCurrentMana(), maxMana);
+    /**
+     * Flags the slot's mana for the next sync. The dirty list belongs to the server thread, so changes
+     * made elsewhere are flagged from there, provided the slot still has the same occupant by then.
+     */
+    private void markDirty(int slot, int generation) {
+        MinecraftServer s = server;
+        if (s != null && !s.isOnThread()) {
+            s.execute(() -> {
+                if (state.isLive(slot) && state.generation(slot) == generation) markDirty(slot);
+            });
+            return;
+        }
+        markDirty(slot);
+    }
+    
+    /** Flags the slot's mana for the next sync; any number of changes in a tick cost one packet. Server thread only. */
+    private void markDirty(int slot) {
+        if (!state.dirty[slot]) {
+            state.dirty[slot] = true;
+            dirtySlots.add(slot);
+        }
+    }
+    
+    /**
+     * Sends pending mana updates, at most one per player per {@code manaSyncInterval} ticks unless max mana changed.
+     * Each update carries the regen parameters and the ticks until the next regen step, so the client
+     * animates regeneration itself; only changes the client cannot predict are sent.
+     */
+    private void flushDirty() {
+        if (dirtySlots.isEmpty()) return;
+        int now = currentTick;
+        int rate = config.manaRegenerationRate;
+        int interval = config.manaRegenerationInterval;
+        int kept = 0;
+        for (int i = 0; i < dirtySlots.size(); i++) {
+            int slot = dirtySlots.getInt(i);
+            if (!state.isLive(slot) || !state.dirty[slot]) continue; // left, or listed twice after reuse
+            int maxMana = maxOf(slot);
+            boolean maxChanged = maxMana != state.lastSentMaxMana[slot];
+            if (!maxChanged && now - state.lastSyncTick[slot] < config.manaSyncInterval) {
+                dirtySlots.set(kept++, slot); // sent recently; stays dirty for a later tick
+                continue;
+            }
+            state.regenerate(slot, state.generation(slot), maxMana, now, rate, interval);
+            if (state.markSynced(slot, maxMana, now, rate, interval)) {
+                ServerPlayerEntity player = state.player[slot];
+                int mana = state.clientMana[slot];
+                int untilRegen = interval > 0 ? interval - (int) ((now - state.clientAnchorTick[slot]) % interval) : 0;
+                MagicSystemNetworking.sendManaUpdate(player, mana, maxMana, rate, interval, untilRegen);
+                MagicSystemMod.LOGGER.debug("Updated mana for player {}: {}/{}", 
+                    player.getName().getString(), mana, maxMana);
+            }
         }
+        dirtySlots.size(kept);
     }
     
     public void onPlayerJoin(ServerPlayerEntity player) {
-        ManaData manaData = getManaData(player.getUuid());
-        manaData.setCurrentMana(getMaxMana(player)); // Full mana on join
-        updateMana(player);
+        int slot = slotOf(player);
+        int generation = state.generation(slot);
+        StoredMana stored = player.getAttached(ManaAttachments.MANA);
+        if (stored != null) {
+            // Pick up where the player left off; regen restarts from now
+            state.setMana(slot, generation, Math.min(stored.mana(), maxOf(slot)), currentTick);
+            state.storedMana[slot] = stored.mana();
+            if (config.persistCooldowns) {
+                MagicSystemMod.getSpellManager().restoreCooldowns(slot, stored.cooldowns());
+                state.cooldownsUnsaved[slot] = false;
+            }
+        } else {
+            state.setMana(slot, generation, maxOf(slot), currentTick); // Full mana for new players
+        }
+        markDirty(slot);
         MagicSystemMod.LOGGER.info("Player {} joined with {}/{} mana", 
-            player.getName().getString(), manaData.getCurrentMana(), getMaxMana(player));
+            player.getName().getString(), state.mana(slot), maxOf(slot));
     }
     
     public void onPlayerLeave(ServerPlayerEntity player) {
-        // Clean up player data to prevent memory leaks
-        UUID playerId = player.getUuid();
-        playerMana.remove(playerId);
-        
-        // Also clean up spell manager data
-        MagicSystemMod.getSpellManager().onPlayerLeave(playerId);
+        // Keep the final state on the player for the logout save, then free the slot
+        int slot = ((PlayerStateAccess) player).magicsystem$getStateSlot();
+        if (slot >= 0) release(player, slot);
         
         MagicSystemMod.LOGGER.info("Player {} left, cleaned up mana and spell data", player.getName().getString());
     }
     
+    /** Called just before the player's data is written to disk. */
+    public void onPlayerSave(ServerPlayerEntity player) {
+        int slot = ((PlayerStateAccess) player).magicsystem$getStateSlot();
+        if (slot >= 0) store(player, slot, regenerate(slot));
+    }
+    
+    /**
+     * Frees the player's slot and leaves its final state on the player for the save that follows.
+     * Mana is read as the slot is freed, so a spend racing the logout is either saved or refused.
+     */
+    private void release(ServerPlayerEntity player, int slot) {
+        int max = maxOf(slot);
+        int mana = state.free(slot, max, currentTick, config.manaRegenerationRate, config.manaRegenerationInterval);
+        store(player, slot, mana);
+        ((PlayerStateAccess) player).magicsystem$setStateSlot(-1);
+    }
+    
+    /**
+     * Copies the slot's mana and running cooldowns to the player's attachment, if they changed since
+     * the last copy. This only touches memory; the attachment reaches disk with the next player save.
+     */
+    private void store(ServerPlayerEntity player, int slot, int mana) {
+        boolean cooldownsChanged = config.persistCooldowns && state.cooldownsUnsaved[slot];
+        if (mana == state.storedMana[slot] && !cooldownsChanged) return;
+        Map<String, Long> cooldowns = config.persistCooldowns
+            ? MagicSystemMod.getSpellManager().activeCooldowns(slot)
+            : Map.of();
+        player.setAttached(ManaAttachments.MANA, new StoredMana(mana, cooldowns));
+        state.storedMana[slot] = mana;
+        state.cooldownsUnsaved[slot] = false;
+    }
+    
+    private void onPlayerCopied(ServerPlayerEntity oldPlayer, ServerPlayerEntity newPlayer) {
+        PlayerStateAccess from = (PlayerStateAccess) oldPlayer;
+        PlayerStateAccess to = (PlayerStateAccess) newPlayer;
+        int slot = from.magicsystem$getStateSlot();
+        if (slot < 0) return;
+        from.magicsystem$setStateSlot(-1);
+        to.magicsystem$setStateGeneration(from.magicsystem$getStateGeneration());
+        to.magicsystem$setStateSlot(slot);
+        state.player[slot] = newPlayer;
+        state.maxMana[slot] = -1; // death may have cost levels
+        markDirty(slot);
+    }
+    
     public void onPlayerRespawn(ServerPlayerEntity player, boolean alive) {
         // Reset mana to 100 upon respawn (after death)
         if (!alive) { // Player died and respawned
-            ManaData manaData = getManaData(player.getUuid());
-            manaData.setCurrentMana(100);
-            updateMana(player);
+            int slot = slotOf(player);
+            state.setMana(slot, state.generation(slot), 100, currentTick);
+            markDirty(slot);
             MagicSystemMod.LOGGER.info("Player {} respawned after death, mana reset to 100", player.getName().getString());
         }
     }
     
+    /**
+     * O(1) plus the players with pending updates, and a pass over the players every
+     * {@code manaResyncInterval} ticks; regeneration itself happens lazily on access.
+     */
     public void tick(MinecraftServer server) {
-        // Only regenerate mana every interval (default 20 ticks = 1 second)
-        tickCounter++;
-        if (tickCounter < config.manaRegenerationInterval) {
-            return;
+        currentTick = server.getTicks();
+        int resyncInterval = config.manaResyncInterval;
+        if (resyncInterval > 0 && currentTick % resyncInterval == 0) {
+            scheduleResyncs(resyncInterval);
         }
-        tickCounter = 0;
-        
-        // Regenerate mana for all online players
-        for (ServerPlayerEntity player : server.getPlayerManager().getPlayerList()) {
-            UUID playerId = player.getUuid();
-            ManaData manaData = playerMana.get(playerId);
-            
-            if (manaData != null) {
-                int currentMana = manaData.getCurrentMana();
-                int maxMana = getMaxMana(player);
-                
-                if (currentMana < maxMana) {
-                    int newMana = Math.min(currentMana + config.manaRegenerationRate, maxMana);
-                    manaData.setCurrentMana(newMana);
-                    manaData.setLastRegenerationTime(System.currentTimeMillis());
-                    
-                    // Send update to client
-                    updateMana(player);
-                    
-                    MagicSystemMod.LOGGER.debug("Regenerated mana for {}: {} -> {}", 
-                        player.getName().getString(), currentMana, newMana);
-                }
+        flushDirty();
+    }
+    
+    /**
+     * Flags regenerating players not synced for a while for a correction. The client steps its
+     * prediction on its own ticks, so whenever the server runs below 20 TPS the HUD runs ahead of the
+     * server's mana; without this it would stay ahead until the next spend or level change.
+     */
+    private void scheduleResyncs(int resyncInterval) {
+        int now = currentTick;
+        for (int slot = 0, end = state.highWater(); slot < end; slot++) {
+            if (!state.isLive(slot) || now - state.lastSyncTick[slot] < resyncInterval) continue;
+            if (regenerate(slot) < maxOf(slot) || state.clientMana[slot] < maxOf(slot)) {
+                state.resync[slot] = true;
+                markDirty(slot);
             }
         }
     }
     
     public void onServerStarted(MinecraftServer server) {
+        this.server = server;
         MagicSystemMod.LOGGER.info("ManaManager initialized for server with {} players", 
             server.getPlayerManager().getPlayerList().size());
     }
     
     public void onServerStopping(MinecraftServer server) {
         // Clean up all player data
-        int playerCount = playerMana.size();
-        playerMana.clear();
-        tickCounter = 0;
+        int playerCount = state.size();
+        for (ServerPlayerEntity player : server.getPlayerManager().getPlayerList()) {
+            // The shutdown save runs after this; leave the final state on the player for it
+            int slot = ((PlayerStateAccess) player).magicsystem$getStateSlot();
+            if (slot >= 0) release(player, slot);
+        }
+        state.clear();
+        dirtySlots.clear();
+        currentTick = 0;
+        this.server = null;
         MagicSystemMod.LOGGER.info("ManaManager cleaned up data for {} players", playerCount);
     }
 }
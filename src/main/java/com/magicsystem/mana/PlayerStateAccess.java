@@ -0,0 +1,16 @@
+package com.magicsystem.mana;
+
+/**
+ * Implemented on server players by mixin so mana and cooldown lookups find the player's
+ * {@link PlayerStateTable} slot in O(1). The generation identifies the player's occupancy of the
+ * slot; it is set before the slot, so a reader that sees the slot also sees its generation.
+ */
+public interface PlayerStateAccess {
+    int magicsystem$getStateSlot();
+
+    void magicsystem$setStateSlot(int slot);
+
+    int magicsystem$getStateGeneration();
+
+    void magicsystem$setStateGeneration(int generation);
+}
@@ -0,0 +1,295 @@
+package com.magicsystem.mana;
+
+import net.minecraft.server.network.ServerPlayerEntity;
+
+import java.util.Arrays;
+
+/**
+ * Struct-of-arrays storage for per-player magic state: mana, regen clock, client sync and save
+ * state, cast rate limit and spell cooldowns. Each online player owns one slot across the parallel columns,
+ * assigned on join and recycled through a free-list on leave. The slot is cached on the player
+ * entity ({@link PlayerStateAccess}), so the cast and mana paths index arrays instead of hashing
+ * UUIDs.
+ *
+ * Mana regeneration is lazy: the stored mana is the value at the slot's regen anchor tick, and the
+ * current value is derived from the ticks elapsed since, whenever someone asks. Mana and anchor live
+ * in {@link ManaCells}, so spending, restoring and regenerating are linearizable from any thread;
+ * those calls take the slot generation the caller looked up and fail once the slot has changed
+ * hands. Cooldowns and the cast rate limit are CAS-guarded the same way: each word holds a time in
+ * ms tagged with the occupant's generation. Everything else, including slot assignment and the
+ * unsaved-cooldowns flag, belongs to the server thread.
+ */
+public final class PlayerStateTable {
+    private static final int INITIAL_CAPACITY = 16;
+
+    // Columns, indexed by slot
+    ServerPlayerEntity[] player = new ServerPlayerEntity[INITIAL_CAPACITY];
+    // Occupant generation, mana and the server tick it refers to (regen anchor), one word per slot
+    private final ManaCells cells = new ManaCells();
+    int[] maxMana = new int[INITIAL_CAPACITY]; // -1 when the level changed and max must be recomputed
+    // Client sync state: what the client was last told, and when. The client regenerates from
+    // clientMana at clientAnchorTick with the same formula, so its HUD value can be derived here
+    boolean[] dirty = new boolean[INITIAL_CAPACITY];
+    int[] clientMana = new int[INITIAL_CAPACITY];
+    long[] clientAnchorTick = new long[INITIAL_CAPACITY];
+    int[] lastSentMaxMana = new int[INITIAL_CAPACITY];
+    long[] lastSyncTick = new long[INITIAL_CAPACITY];
+    boolean[] resync = new boolean[INITIAL_CAPACITY]; // next sync is sent even if the client's prediction matches
+    // Save state: mana last copied to the player's attachment (-1 = none), and unsaved cooldown changes
+    int[] storedMana = new int[INITIAL_CAPACITY];
+    boolean[] cooldownsUnsaved = new boolean[INITIAL_CAPACITY];
+    // Time words: ms (0 = never) in the low 56 bits, the occupant's generation in the high 8
+    private final AtomicLongColumn lastCastTime = new AtomicLongColumn();
+    // Cast times by slot * spellCount + spell index
+    private AtomicLongColumn cooldownStart = new AtomicLongColumn();
+    private int spellCount = 0;
+    private static final long TIME_MASK = (1L << 56) - 1;
+
+    PlayerStateTable() {
+        cells.ensureCapacity(INITIAL_CAPACITY);
+        lastCastTime.ensureCapacity(INITIAL_CAPACITY);
+    }
+
+    // Slot bookkeeping
+    private boolean[] live = new boolean[INITIAL_CAPACITY];
+    private int[] freeSlots = new int[INITIAL_CAPACITY];
+    private int freeCount = 0;
+    private int highWater = 0; // slots [0, highWater) have been handed out at least once
+    private int size = 0;
+
+    /** Assigns a free slot to the player; its generation is then {@link #generation(int)}. */
+    int allocate(ServerPlayerEntity p, int initialMana, int tick) {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (highWater == live.length) grow();
+            slot = highWater++;
+        }
+        live[slot] = true;
+        size++;
+        player[slot] = p;
+        int generation = cells.occupy(slot, initialMana, tick);
+        maxMana[slot] = -1;
+        dirty[slot] = false;
+        clientMana[slot] = -1;
+        clientAnchorTick[slot] = 0;
+        lastSentMaxMana[slot] = -1;
+        lastSyncTick[slot] = Long.MIN_VALUE / 2;
+        resync[slot] = false;
+        storedMana[slot] = -1;
+        cooldownsUnsaved[slot] = false;
+        lastCastTime.set(slot, stamp(generation, 0));
+        cooldownStart.fill(slot * spellCount, (slot + 1) * spellCount, stamp(generation, 0));
+        return slot;
+    }
+
+    /**
+     * Releases the slot and returns its final mana, regenerated up to {@code now}. Callers still
+     * holding the slot's generation fail from here on, so nothing spent after this is lost.
+     */
+    int free(int slot, int max, int now, int rate, int interval) {
+        if (!live[slot]) return 0;
+        int finalMana = cells.vacate(slot, max, now, rate, interval);
+        live[slot] = false;
+        size--;
+        player[slot] = null;
+        dirty[slot] = false;
+        freeSlots[freeCount++] = slot;
+        return finalMana;
+    }
+
+    /** Upper bound (exclusive) of slots that may be live. */
+    int highWater() {
+        return highWater;
+    }
+
+    boolean isLive(int slot) {
+        return live[slot];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        Arrays.fill(player, null);
+        Arrays.fill(live, false);
+        Arrays.fill(dirty, false);
+        freeCount = 0;
+        highWater = 0;
+        size = 0;
+    }
+
+    /** Sizes the cooldown columns for the registered spells. Called once, before any player joins. */
+    public void setSpellCount(int count) {
+        spellCount = count;
+        cooldownStart = new AtomicLongColumn();
+        cooldownStart.ensureCapacity(live.length * count);
+    }
+
+    static long stamp(int generation, long timeMs) {
+        return ((long) (generation & 0xFF) << 56) | (timeMs & TIME_MASK);
+    }
+
+    static int stampGeneration(long word) {
+        return (int) (word >>> 56);
+    }
+
+    static long stampTime(long word) {
+        return word & TIME_MASK;
+    }
+
+    /** Whether the slot is still held by the occupancy with this generation. Server thread only. */
+    public boolean holds(int slot, int generation) {
+        return live[slot] && cells.generation(slot) == generation;
+    }
+
+    public long getLastCastTime(int slot) {
+        return stampTime(lastCastTime.get(slot));
+    }
+
+    /**
+     * Records a cast at {@code nowMs} unless the slot cast less than {@code minIntervalMs} ago.
+     * Returns the previous cast time (0 if never), for {@link #releaseCast}, or -1 if rate limited
+     * or the slot has changed hands; of any number of concurrent callers, only one can claim the
+     * same interval.
+     */
+    public long tryClaimCast(int slot, int generation, long nowMs, long minIntervalMs) {
+        while (true) {
+            long word = lastCastTime.get(slot);
+            if (stampGeneration(word) != generation) return -1;
+            long lastCast = stampTime(word);
+            if (lastCast != 0 && nowMs - lastCast < minIntervalMs) return -1;
+            if (lastCastTime.compareAndSet(slot, word, stamp(generation, nowMs))) return lastCast;
+        }
+    }
+
+    /** Undoes a {@link #tryClaimCast} whose cast failed, unless another cast has been recorded since. */
+    public void releaseCast(int slot, int generation, long claimedMs, long previousMs) {
+        lastCastTime.compareAndSet(slot, stamp(generation, claimedMs), stamp(generation, previousMs));
+    }
+
+    /** When the spell was last cast by this slot's player, in ms, or 0 if never. */
+    public long getCooldownStart(int slot, int spellIndex) {
+        return stampTime(cooldownStart.get(slot * spellCount + spellIndex));
+    }
+
+    /** Sets a cooldown's start for the slot's current occupant. Server thread only. */
+    public void setCooldownStart(int slot, int spellIndex, long timeMs) {
+        cooldownStart.set(slot * spellCount + spellIndex, stamp(cells.generation(slot), timeMs));
+        cooldownsUnsaved[slot] = true;
+    }
+
+    /**
+     * Sets a cooldown's start to {@code timeMs} only if it is still {@code expectedMs} for the same
+     * occupant; a refund that lost the race to a newer cast leaves that cast's cooldown alone.
+     * Callers report the change with {@link #markCooldownsChanged} from the server thread.
+     */
+    public boolean compareAndSetCooldownStart(int slot, int generation, int spellIndex, long expectedMs, long timeMs) {
+        return cooldownStart.compareAndSet(slot * spellCount + spellIndex, stamp(generation, expectedMs), stamp(generation, timeMs));
+    }
+
+    /**
+     * Starts a spell's cooldown at {@code nowMs} unless it is still running. Returns the start it
+     * replaced (0 if never cast), or -1 if the cooldown was running or the slot has changed hands;
+     * of any number of concurrent callers, only one can start the same cooldown. Callers report the
+     * change with {@link #markCooldownsChanged} from the server thread.
+     */
+    public long tryStartCooldown(int slot, int generation, int spellIndex, long nowMs, int cooldownMs) {
+        int index = slot * spellCount + spellIndex;
+        while (true) {
+            long word = cooldownStart.get(index);
+            if (stampGeneration(word) != generation) return -1;
+            long lastCast = stampTime(word);
+            if (lastCast != 0 && nowMs - lastCast < cooldownMs) return -1;
+            if (cooldownStart.compareAndSet(index, word, stamp(generation, nowMs))) return lastCast;
+        }
+    }
+
+    /** Flags the slot's cooldowns for the next save. Server thread only. */
+    public void markCooldownsChanged(int slot) {
+        cooldownsUnsaved[slot] = true;
+    }
+
+    /** The generation of the slot's current occupant. */
+    int generation(int slot) {
+        return cells.generation(slot);
+    }
+
+    /** Stored mana as of the regen anchor; use {@link #regenerate} for the current value. */
+    int mana(int slot) {
+        return cells.mana(slot);
+    }
+
+    int anchor(int slot) {
+        return cells.anchor(slot);
+    }
+
+    /** Overwrites mana and restarts regen from {@code tick}. Returns false if the slot has changed hands. */
+    boolean setMana(int slot, int generation, int mana, int tick) {
+        return cells.set(slot, generation, mana, tick);
+    }
+
+    /** Mana after regenerating {@code rate} every {@code interval} ticks from {@code anchor} to {@code now}, capped at max. */
+    static int regenerated(int mana, long anchor, int maxMana, long now, int rate, int interval) {
+        if (mana >= maxMana || rate <= 0 || interval <= 0 || now <= anchor) return mana;
+        long steps = (now - anchor) / interval;
+        return (int) Math.min(maxMana, mana + steps * rate);
+    }
+
+    /** Folds the regen owed up to {@code now} into the stored value and returns the current mana, or -1 if the slot has changed hands. */
+    int regenerate(int slot, int generation, int max, int now, int rate, int interval) {
+        return cells.regenerate(slot, generation, max, now, rate, interval);
+    }
+
+    /** Atomically regenerates and spends {@code amount}. Returns false, spending nothing, if there is not enough mana or the slot has changed hands. */
+    boolean tryConsume(int slot, int generation, int amount, int max, int now, int rate, int interval) {
+        return cells.tryConsume(slot, generation, amount, max, now, rate, interval);
+    }
+
+    /** Atomically regenerates, then adds {@code amount} up to max. Returns the new mana, or -1 if the slot has changed hands. */
+    int restore(int slot, int generation, int amount, int max, int now, int rate, int interval) {
+        return cells.restore(slot, generation, amount, max, now, rate, interval);
+    }
+
+    /**
+     * Records that the slot's current state is being sent to the client and clears the dirty flag.
+     * Returns false if the client's own prediction already shows these values, in which case nothing
+     * needs sending, unless a resync was requested.
+     */
+    boolean markSynced(int slot, int max, long tick, int rate, int interval) {
+        dirty[slot] = false;
+        boolean force = resync[slot];
+        resync[slot] = false;
+        long word = cells.word(slot);
+        int current = ManaCells.manaOf(word);
+        int anchor = ManaCells.anchorOf(word);
+        int predicted = regenerated(clientMana[slot], clientAnchorTick[slot], lastSentMaxMana[slot], tick, rate, interval);
+        if (!force && clientMana[slot] >= 0 && predicted == current && max == lastSentMaxMana[slot]) return false;
+        clientMana[slot] = current;
+        clientAnchorTick[slot] = anchor;
+        lastSentMaxMana[slot] = max;
+        lastSyncTick[slot] = tick;
+        return true;
+    }
+
+    private void grow() {
+        int n = live.length * 2;
+        player = Arrays.copyOf(player, n);
+        cells.ensureCapacity(n);
+        maxMana = Arrays.copyOf(maxMana, n);
+        dirty = Arrays.copyOf(dirty, n);
+        clientMana = Arrays.copyOf(clientMana, n);
+        clientAnchorTick = Arrays.copyOf(clientAnchorTick, n);
+        lastSentMaxMana = Arrays.copyOf(lastSentMaxMana, n);
+        lastSyncTick = Arrays.copyOf(lastSyncTick, n);
+        resync = Arrays.copyOf(resync, n);
+        storedMana = Arrays.copyOf(storedMana, n);
+        cooldownsUnsaved = Arrays.copyOf(cooldownsUnsaved, n);
+        lastCastTime.ensureCapacity(n);
+        cooldownStart.ensureCapacity(n * spellCount);
+        live = Arrays.copyOf(live, n);
+        freeSlots = Arrays.copyOf(freeSlots, n);
+    }
+}
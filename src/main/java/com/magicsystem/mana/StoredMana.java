@@ -0,0 +1,18 @@
+package com.magicsystem.mana;
+
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+
+import java.util.Map;
+
+/**
+ * Mana and running spell cooldowns as saved with the player. Cooldowns are cast times in
+ * wall-clock ms by spell id, so they keep running while the player is offline; expired and
+ * unknown spells are skipped on load.
+ */
+public record StoredMana(int mana, Map<String, Long> cooldowns) {
+    public static final Codec<StoredMana> CODEC = RecordCodecBuilder.create(instance -> instance.group(
+        Codec.INT.fieldOf("mana").forGetter(StoredMana::mana),
+        Codec.unboundedMap(Codec.STRING, Codec.LONG).optionalFieldOf("cooldowns", Map.of()).forGetter(StoredMana::cooldowns)
+    ).apply(instance, StoredMana::new));
+}
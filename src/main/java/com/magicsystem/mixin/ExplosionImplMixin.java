@@ -0,0 +1,21 @@
+package com.magicsystem.mixin;
+
+import com.magicsystem.effects.WallManager;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.explosion.Explosion;
+import net.minecraft.world.explosion.ExplosionImpl;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+import java.util.List;
+
+@Mixin(ExplosionImpl.class)
+public abstract class ExplosionImplMixin {
+    // The affected-block list is final by now; dropping wall blocks here leaves them standing
+    @Inject(method = "destroyBlocks", at = @At("HEAD"))
+    private void magicsystem$protectWalls(List<BlockPos> positions, CallbackInfo ci) {
+        WallManager.protectFromExplosion(((Explosion) (Object) this).getWorld(), positions);
+    }
+}
@@ -0,0 +1,20 @@
+package com.magicsystem.mixin;
+
+import com.magicsystem.MagicSystemMod;
+import com.magicsystem.mana.ManaManager;
+import net.minecraft.server.PlayerManager;
+import net.minecraft.server.network.ServerPlayerEntity;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(PlayerManager.class)
+public abstract class PlayerManagerMixin {
+    // Autosave, logout and shutdown all save players through here; copy mana in just before
+    @Inject(method = "savePlayerData", at = @At("HEAD"))
+    private void magicsystem$storeMana(ServerPlayerEntity player, CallbackInfo ci) {
+        ManaManager manaManager = MagicSystemMod.getManaManager();
+        if (manaManager != null) manaManager.onPlayerSave(player);
+    }
+}
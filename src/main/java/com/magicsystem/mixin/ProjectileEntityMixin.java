@@ -0,0 +1,38 @@
+package com.magicsystem.mixin;
+
+import com.magicsystem.effects.EffectsManager;
+import com.magicsystem.effects.TrackedProjectileAccess;
+import net.minecraft.entity.projectile.ProjectileEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.hit.HitResult;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(ProjectileEntity.class)
+public abstract class ProjectileEntityMixin implements TrackedProjectileAccess {
+    @Unique
+    private int magicsystem$trackerSlot = -1;
+
+    @Override
+    public int magicsystem$getTrackerSlot() {
+        return magicsystem$trackerSlot;
+    }
+
+    @Override
+    public void magicsystem$setTrackerSlot(int slot) {
+        this.magicsystem$trackerSlot = slot;
+    }
+
+    // Fireball subclasses call super.onCollision first, so this sees every hit with its exact position
+    @Inject(method = "onCollision", at = @At("HEAD"))
+    private void magicsystem$onCollision(HitResult hitResult, CallbackInfo ci) {
+        if (magicsystem$trackerSlot < 0) return;
+        ProjectileEntity self = (ProjectileEntity) (Object) this;
+        if (self.getWorld() instanceof ServerWorld world) {
+            EffectsManager.onProjectileCollision(world, self, hitResult.getPos());
+        }
+    }
+}
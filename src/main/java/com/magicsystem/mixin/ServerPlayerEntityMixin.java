@@ -0,0 +1,63 @@
+package com.magicsystem.mixin;
+
+import com.magicsystem.MagicSystemMod;
+import com.magicsystem.mana.ManaManager;
+import com.magicsystem.mana.PlayerStateAccess;
+import net.minecraft.item.ItemStack;
+import net.minecraft.server.network.ServerPlayerEntity;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(ServerPlayerEntity.class)
+public abstract class ServerPlayerEntityMixin implements PlayerStateAccess {
+    // Volatile: mana may be spent or restored from other threads
+    @Unique
+    private volatile int magicsystem$stateSlot = -1;
+    @Unique
+    private volatile int magicsystem$stateGeneration;
+
+    @Override
+    public int magicsystem$getStateSlot() {
+        return magicsystem$stateSlot;
+    }
+
+    @Override
+    public void magicsystem$setStateSlot(int slot) {
+        this.magicsystem$stateSlot = slot;
+    }
+
+    @Override
+    public int magicsystem$getStateGeneration() {
+        return magicsystem$stateGeneration;
+    }
+
+    @Override
+    public void magicsystem$setStateGeneration(int generation) {
+        this.magicsystem$stateGeneration = generation;
+    }
+
+    // Max mana follows the experience level; these are the only ways a live player's level changes
+    @Inject(method = "addExperienceLevels", at = @At("HEAD"))
+    private void magicsystem$onAddLevels(int levels, CallbackInfo ci) {
+        magicsystem$levelChanging();
+    }
+
+    @Inject(method = "applyEnchantmentCosts", at = @At("HEAD"))
+    private void magicsystem$onEnchant(ItemStack enchantedItem, int experienceLevels, CallbackInfo ci) {
+        magicsystem$levelChanging();
+    }
+
+    @Inject(method = "setExperienceLevel", at = @At("HEAD"))
+    private void magicsystem$onSetLevel(int level, CallbackInfo ci) {
+        magicsystem$levelChanging();
+    }
+
+    @Unique
+    private void magicsystem$levelChanging() {
+        ManaManager manaManager = MagicSystemMod.getManaManager();
+        if (manaManager != null) manaManager.onLevelChanging((ServerPlayerEntity) (Object) this);
+    }
+}
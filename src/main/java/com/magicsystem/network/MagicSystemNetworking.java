@@ -2,19 +2,25 @@ package com.magicsystem.network;
 
 import com.magicsystem.MagicSystemMod;
 import com.magicsystem.client.ClientManaManager;
+import com.magicsystem.client.ClientTrailManager;
+import com.magicsystem.effects.ProjectileParams;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
 import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.entity.Entity;
+import net.minecraft.registry.Registries;
 import net.minecraft.server.network.ServerPlayerEntity;
 
 public class MagicSystemNetworking {
-    
     public static void registerServer() {
         // Register packet types
         PayloadTypeRegistry.playS2C().register(ManaUpdatePacket.ID, ManaUpdatePacket.CODEC);
         PayloadTypeRegistry.playS2C().register(CooldownsUpdatePacket.ID, CooldownsUpdatePacket.CODEC);
+        PayloadTypeRegistry.playS2C().register(ProjectileTrailPacket.ID, ProjectileTrailPacket.CODEC);
+        PayloadTypeRegistry.playS2C().register(VirtualProjectileSpawnPacket.ID, VirtualProjectileSpawnPacket.CODEC);
+        PayloadTypeRegistry.playS2C().register(VirtualProjectileImpactPacket.ID, VirtualProjectileImpactPacket.CODEC);
         
         MagicSystemMod.LOGGER.info("Magic System server networking registered");
     }
@@ -24,7 +30,8 @@ public class MagicSystemNetworking {
         // Register client packet handler
         ClientPlayNetworking.registerGlobalReceiver(ManaUpdatePacket.ID, (payload, context) -> {
             context.client().execute(() -> {
-                ClientManaManager.updateMana(payload.currentMana(), payload.maxMana());
+                ClientManaManager.updateMana(payload.currentMana(), payload.maxMana(),
+                    payload.regenRate(), payload.regenInterval(), payload.ticksUntilRegen());
             });
         });
         ClientPlayNetworking.registerGlobalReceiver(CooldownsUpdatePacket.ID, (payload, context) -> {
@@ -32,15 +39,62 @@ public class MagicSystemNetworking {
                 com.magicsystem.client.hud.ManaHUD.updateCooldowns(payload.entries());
             });
         });
+        ClientPlayNetworking.registerGlobalReceiver(ProjectileTrailPacket.ID, (payload, context) -> {
+            context.client().execute(() -> {
+                ClientTrailManager.addTrail(payload);
+            });
+        });
+        ClientPlayNetworking.registerGlobalReceiver(VirtualProjectileSpawnPacket.ID, (payload, context) -> {
+            context.client().execute(() -> {
+                ClientTrailManager.addVirtual(payload);
+            });
+        });
+        ClientPlayNetworking.registerGlobalReceiver(VirtualProjectileImpactPacket.ID, (payload, context) -> {
+            context.client().execute(() -> {
+                ClientTrailManager.removeVirtual(payload.id());
+            });
+        });
         
         MagicSystemMod.LOGGER.info("Magic System client networking registered");
     }
     
-    public static void sendManaUpdate(ServerPlayerEntity player, int currentMana, int maxMana) {
-        ManaUpdatePacket packet = new ManaUpdatePacket(currentMana, maxMana);
+    public static void sendManaUpdate(ServerPlayerEntity player, int currentMana, int maxMana,
+                                      int regenRate, int regenInterval, int ticksUntilRegen) {
+        ManaUpdatePacket packet = new ManaUpdatePacket(currentMana, maxMana, regenRate, regenInterval, ticksUntilRegen);
         ServerPlayNetworking.send(player, packet);
         
         MagicSystemMod.LOGGER.debug("Sent mana update to {}: {}/{}", 
             player.getName().getString(), currentMana, maxMana);
     }
+    
+    /** Sends a tracked projectile's trail descriptor. Returns false if the player's client can't receive it. */
+    public static boolean sendProjectileTrail(ServerPlayerEntity player, Entity entity, ProjectileParams params, int lifetimeTicks) {
+        if (!ServerPlayNetworking.canSend(player, ProjectileTrailPacket.ID)) return false;
+        ServerPlayNetworking.send(player, new ProjectileTrailPacket(
+            entity.getId(),
+            Registries.PARTICLE_TYPE.getId(params.trailParticle),
+            params.trailFlameCount,
+            params.trailSmokeEveryNSteps,
+            lifetimeTicks
+        ));
+        return true;
+    }
+    
+    /** Sends a virtual projectile's current state. Returns false if the player's client can't receive it. */
+    public static boolean sendVirtualProjectileSpawn(ServerPlayerEntity player, int id, double x, double y, double z,
+                                                     double vx, double vy, double vz, ProjectileParams params, int lifetimeTicks) {
+        if (!ServerPlayNetworking.canSend(player, VirtualProjectileSpawnPacket.ID)) return false;
+        ServerPlayNetworking.send(player, new VirtualProjectileSpawnPacket(
+            id, x, y, z, vx, vy, vz,
+            params.gravityPerTick, params.drag, lifetimeTicks,
+            Registries.PARTICLE_TYPE.getId(params.trailParticle),
+            params.trailFlameCount, params.trailSmokeEveryNSteps
+        ));
+        return true;
+    }
+    
+    public static void sendVirtualProjectileImpact(ServerPlayerEntity player, int id, double x, double y, double z) {
+        if (player.isDisconnected()) return;
+        ServerPlayNetworking.send(player, new VirtualProjectileImpactPacket(id, x, y, z));
+    }
 }
@@ -6,7 +6,11 @@ import net.minecraft.network.codec.PacketCodec;
 import net.minecraft.network.packet.CustomPayload;
 import net.minecraft.util.Identifier;
 
-public record ManaUpdatePacket(int currentMana, int maxMana) implements CustomPayload {
+/**
+ * Authoritative mana state plus the regen parameters the client needs to predict regeneration
+ * until the next correction.
+ */
+public record ManaUpdatePacket(int currentMana, int maxMana, int regenRate, int regenInterval, int ticksUntilRegen) implements CustomPayload {
     public static final CustomPayload.Id<ManaUpdatePacket> ID = 
         new CustomPayload.Id<>(MagicSystemMod.id("mana_update"));
     
@@ -21,11 +25,17 @@ public record ManaUpdatePacket(int currentMana, int maxMana) implements CustomPa
     public void write(PacketByteBuf buf) {
         buf.writeVarInt(currentMana);
         buf.writeVarInt(maxMana);
+        buf.writeVarInt(regenRate);
+        buf.writeVarInt(regenInterval);
+        buf.writeVarInt(ticksUntilRegen);
     }
 
     public static ManaUpdatePacket read(PacketByteBuf buf) {
         int currentMana = buf.readVarInt();
         int maxMana = buf.readVarInt();
-        return new ManaUpdatePacket(currentMana, maxMana);
+        int regenRate = buf.readVarInt();
+        int regenInterval = buf.readVarInt();
+        int ticksUntilRegen = buf.readVarInt();
+        return new ManaUpdatePacket(currentMana, maxMana, regenRate, regenInterval, ticksUntilRegen);
     }
 }
@@ -0,0 +1,41 @@
+package com.magicsystem.network;
+
+import com.magicsystem.MagicSystemMod;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.util.Identifier;
+
+/**
+ * One-shot trail descriptor for a tracked projectile. The client follows the entity and draws
+ * the interpolated trail itself, so the server sends no per-step particle packets.
+ */
+public record ProjectileTrailPacket(int entityId, Identifier particle, int flameCount, int smokeEveryNSteps, int maxLifetimeTicks) implements CustomPayload {
+    public static final CustomPayload.Id<ProjectileTrailPacket> ID =
+        new CustomPayload.Id<>(MagicSystemMod.id("projectile_trail"));
+
+    public static final PacketCodec<PacketByteBuf, ProjectileTrailPacket> CODEC =
+        PacketCodec.of(ProjectileTrailPacket::write, ProjectileTrailPacket::read);
+
+    @Override
+    public CustomPayload.Id<? extends CustomPayload> getId() {
+        return ID;
+    }
+
+    public void write(PacketByteBuf buf) {
+        buf.writeVarInt(entityId);
+        buf.writeIdentifier(particle);
+        buf.writeVarInt(flameCount);
+        buf.writeVarInt(smokeEveryNSteps);
+        buf.writeVarInt(maxLifetimeTicks);
+    }
+
+    public static ProjectileTrailPacket read(PacketByteBuf buf) {
+        int entityId = buf.readVarInt();
+        Identifier particle = buf.readIdentifier();
+        int flameCount = buf.readVarInt();
+        int smokeEveryNSteps = buf.readVarInt();
+        int maxLifetimeTicks = buf.readVarInt();
+        return new ProjectileTrailPacket(entityId, particle, flameCount, smokeEveryNSteps, maxLifetimeTicks);
+    }
+}
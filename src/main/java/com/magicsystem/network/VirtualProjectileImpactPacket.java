@@ -0,0 +1,37 @@
+package com.magicsystem.network;
+
+import com.magicsystem.MagicSystemMod;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.network.packet.CustomPayload;
+
+/**
+ * Ends a client-simulated projectile at its authoritative impact position.
+ */
+public record VirtualProjectileImpactPacket(int id, double x, double y, double z) implements CustomPayload {
+    public static final CustomPayload.Id<VirtualProjectileImpactPacket> ID =
+        new CustomPayload.Id<>(MagicSystemMod.id("virtual_projectile_impact"));
+
+    public static final PacketCodec<PacketByteBuf, VirtualProjectileImpactPacket> CODEC =
+        PacketCodec.of(VirtualProjectileImpactPacket::write, VirtualProjectileImpactPacket::read);
+
+    @Override
+    public CustomPayload.Id<? extends CustomPayload> getId() {
+        return ID;
+    }
+
+    public void write(PacketByteBuf buf) {
+        buf.writeVarInt(id);
+        buf.writeDouble(x);
+        buf.writeDouble(y);
+        buf.writeDouble(z);
+    }
+
+    public static VirtualProjectileImpactPacket read(PacketByteBuf buf) {
+        int id = buf.readVarInt();
+        double x = buf.readDouble();
+        double y = buf.readDouble();
+        double z = buf.readDouble();
+        return new VirtualProjectileImpactPacket(id, x, y, z);
+    }
+}
@@ -0,0 +1,59 @@
+package com.magicsystem.network;
+
+import com.magicsystem.MagicSystemMod;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.util.Identifier;
+
+/**
+ * Spawn data for an entity-less projectile. Clients replay the same gravity/drag integration
+ * as the server, so nothing else is sent until the impact.
+ */
+public record VirtualProjectileSpawnPacket(int id, double x, double y, double z, double vx, double vy, double vz,
+                                           double gravityPerTick, double drag, int maxLifetimeTicks,
+                                           Identifier particle, int flameCount, int smokeEveryNSteps) implements CustomPayload {
+    public static final CustomPayload.Id<VirtualProjectileSpawnPacket> ID =
+        new CustomPayload.Id<>(MagicSystemMod.id("virtual_projectile_spawn"));
+
+    public static final PacketCodec<PacketByteBuf, VirtualProjectileSpawnPacket> CODEC =
+        PacketCodec.of(VirtualProjectileSpawnPacket::write, VirtualProjectileSpawnPacket::read);
+
+    @Override
+    public CustomPayload.Id<? extends CustomPayload> getId() {
+        return ID;
+    }
+
+    public void write(PacketByteBuf buf) {
+        buf.writeVarInt(id);
+        buf.writeDouble(x);
+        buf.writeDouble(y);
+        buf.writeDouble(z);
+        buf.writeDouble(vx);
+        buf.writeDouble(vy);
+        buf.writeDouble(vz);
+        buf.writeDouble(gravityPerTick);
+        buf.writeDouble(drag);
+        buf.writeVarInt(maxLifetimeTicks);
+        buf.writeIdentifier(particle);
+        buf.writeVarInt(flameCount);
+        buf.writeVarInt(smokeEveryNSteps);
+    }
+
+    public static VirtualProjectileSpawnPacket read(PacketByteBuf buf) {
+        int id = buf.readVarInt();
+        double x = buf.readDouble();
+        double y = buf.readDouble();
+        double z = buf.readDouble();
+        double vx = buf.readDouble();
+        double vy = buf.readDouble();
+        double vz = buf.readDouble();
+        double gravityPerTick = buf.readDouble();
+        double drag = buf.readDouble();
+        int maxLifetimeTicks = buf.readVarInt();
+        Identifier particle = buf.readIdentifier();
+        int flameCount = buf.readVarInt();
+        int smokeEveryNSteps = buf.readVarInt();
+        return new VirtualProjectileSpawnPacket(id, x, y, z, vx, vy, vz, gravityPerTick, drag, maxLifetimeTicks, particle, flameCount, smokeEveryNSteps);
+    }
+}
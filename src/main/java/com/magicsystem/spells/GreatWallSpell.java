@@ -1,43 +1,56 @@
 package com.magicsystem.spells;
 
+import com.magicsystem.block.MagicSystemBlocks;
 import com.magicsystem.effects.WallManager;
+import com.magicsystem.spells.shape.ShapeTemplate;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.FallingBlock;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.sound.SoundCategory;
-import net.minecraft.sound.SoundEvents;
 import net.minecraft.util.hit.BlockHitResult;
 import net.minecraft.util.hit.HitResult;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Direction;
 import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.Heightmap;
 import net.minecraft.world.RaycastContext;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
- * Great Wall spell that reads its parameters from config.
+ * Great Wall spell that reads its parameters from config. Builds any {@link ShapeTemplate}
+ * (wall, ring, dome, pillar) at the targeted block.
  */
 public class GreatWallSpell extends Spell {
-    private final int width;
-    private final int height;
+    // Deepest gap filled under a wall column; a falling material is not built over anything deeper
+    private static final int MAX_FILL_DEPTH = 16;
+    private static final int UNSUPPORTED = Integer.MIN_VALUE;
+
+    private final ShapeTemplate shape;
     private final int range;
     private final int riseTicks;
     private final int holdTicks;
     private final boolean allowReplace;
-    private final net.minecraft.block.BlockState material;
+    private final BlockState material;
 
     public GreatWallSpell(String id, String name, int manaCost, int cooldown,
                                       int width, int height, int range, int riseTicks, int holdTicks,
                                       boolean allowReplace) {
+        this(id, name, manaCost, cooldown, ShapeTemplate.of(ShapeTemplate.Type.WALL, width, height, 0), range, riseTicks, holdTicks, allowReplace, null);
+    }
+
+    /** @param material block to build with; null for {@code magicsystem:arcane_wall} */
+    public GreatWallSpell(String id, String name, int manaCost, int cooldown,
+                          ShapeTemplate shape, int range, int riseTicks, int holdTicks,
+                          boolean allowReplace, BlockState material) {
         super(id, name, manaCost, cooldown, 0f, range, true, 0f, 0f, 0f);
-        this.width = width;
-        this.height = height;
+        this.shape = shape;
         this.range = range;
         this.riseTicks = riseTicks;
         this.holdTicks = holdTicks;
         this.allowReplace = allowReplace;
-        this.material = net.minecraft.block.Blocks.GRAVEL.getDefaultState();
+        this.material = material != null ? material : MagicSystemBlocks.ARCANE_WALL.getDefaultState();
     }
 
     @Override
@@ -57,45 +70,53 @@ public class GreatWallSpell extends Spell {
 
             BlockPos target = ((BlockHitResult) hit).getBlockPos().up();
 
-            // Align wall perpendicular to player's facing
+            // Align the shape to the player's facing (a plain wall stands across the line of sight)
             Direction facing = player.getHorizontalFacing();
-            boolean alongX = (facing == Direction.NORTH || facing == Direction.SOUTH);
-
-            int half = width / 2;
-            List<BlockPos> planned = new ArrayList<>();
-            // Keep a level top height across the wall
-            int topY = target.getY() + (height - 1);
-            for (int dx = -half; dx <= half; dx++) {
-                int x = alongX ? target.getX() + dx : target.getX();
-                int z = alongX ? target.getZ() : target.getZ() + dx;
-
-                // Desired bottom for the visible wall (keeps top level)
-                int bottomDesired = topY - (height - 1);
-
-                // Fill below the desired bottom if there is a gap (so gravel doesn't drop and over-stack)
-                int scanY = bottomDesired - 1;
-                int worldBottom = world.getBottomY();
-                while (scanY >= worldBottom && world.getBlockState(new BlockPos(x, scanY, z)).isAir()) {
-                    scanY--;
+            long[] blocks = shape.place(target, facing);
+            if (blocks.length == 0) {
+                sendFailureMessage(player, "Nothing to build.");
+                return false;
+            }
+            LongArrayList planned = new LongArrayList(blocks.length);
+            // Falling materials need the gap under columns standing on the target level filled, so they don't drop and
+            // over-stack; fill blocks do not count towards the shape's height, which keeps its top level. Columns with
+            // nothing to rest on within reach are left out entirely: a fill resting on air would fall, and the wall after it
+            if (material.getBlock() instanceof FallingBlock) {
+                BlockPos.Mutable scan = new BlockPos.Mutable();
+                LongOpenHashSet unsupported = new LongOpenHashSet();
+                for (long column : shape.footprint(facing)) {
+                    int x = target.getX() + BlockPos.unpackLongX(column);
+                    int z = target.getZ() + BlockPos.unpackLongZ(column);
+                    int fillStartY = findFillStart(world, x, z, target.getY(), scan);
+                    if (fillStartY == UNSUPPORTED) {
+                        unsupported.add(BlockPos.asLong(x, 0, z));
+                        continue;
+                    }
+                    for (int fy = fillStartY; fy < target.getY(); fy++) {
+                        planned.add(BlockPos.asLong(x, fy, z));
+                    }
                 }
-                int fillStartY = scanY + 1; // first air above solid (or bottom)
-
-                // Add fill blocks beneath bottomDesired (do not count towards wall height)
-                for (int fy = fillStartY; fy < bottomDesired; fy++) {
-                    planned.add(new BlockPos(x, fy, z));
+                for (long pos : blocks) {
+                    if (!unsupported.contains(BlockPos.asLong(BlockPos.unpackLongX(pos), 0, BlockPos.unpackLongZ(pos)))) {
+                        planned.add(pos);
+                    }
                 }
-
-                // Add the actual wall blocks from bottomDesired up to topY (height tall)
-                for (int wy = bottomDesired; wy <= topY; wy++) {
-                    planned.add(new BlockPos(x, wy, z));
+                if (planned.isEmpty()) {
+                    sendFailureMessage(player, "No solid ground to build on.");
+                    return false;
                 }
+            } else {
+                planned.addElements(0, blocks);
             }
 
-            // Casting sound
-            world.playSound(null, player.getBlockPos(), SoundEvents.BLOCK_GRAVEL_PLACE, SoundCategory.PLAYERS, 1.0f, 1.0f);
-
             // Create wall with configured material and replacement policy
-            WallManager.create(world, planned, width, height, riseTicks, holdTicks, target, material, allowReplace);
+            if (!WallManager.create(world, planned.toLongArray(), shape.horizontalSize(), shape.height(), riseTicks, holdTicks, target, material, allowReplace, player.getUuid())) {
+                sendFailureMessage(player, "Another wall already stands there.");
+                return false;
+            }
+
+            // Casting sound
+            world.playSound(null, player.getBlockPos(), material.getSoundGroup().getPlaceSound(), SoundCategory.PLAYERS, 1.0f, 1.0f);
             sendCastMessage(player);
             return true;
         } catch (Exception e) {
@@ -104,6 +125,23 @@ public class GreatWallSpell extends Spell {
             return false;
         }
     }
+
+    /**
+     * Returns the lowest block to fill under a column so a falling block at {@code bottomY} rests on
+     * something that holds it, or {@code bottomY} if there is no gap. On open ground the scan starts
+     * at the WORLD_SURFACE heightmap (top non-air block) instead of walking down through air; under an
+     * overhang it starts just below the wall. Water, plants and other blocks a falling block drops
+     * through are part of the gap. Returns {@link #UNSUPPORTED} if nothing within
+     * {@link #MAX_FILL_DEPTH} would hold it, which also keeps a cast over a ravine cheap.
+     */
+    private static int findFillStart(ServerWorld world, int x, int z, int bottomY, BlockPos.Mutable scan) {
+        int minY = Math.max(world.getBottomY(), bottomY - MAX_FILL_DEPTH);
+        int y = Math.min(world.getTopY(Heightmap.Type.WORLD_SURFACE, x, z), bottomY) - 1;
+        while (y >= minY && FallingBlock.canFallThrough(world.getBlockState(scan.set(x, y, z)))) {
+            y--;
+        }
+        return y >= minY ? y + 1 : UNSUPPORTED;
+    }
 }
 
 
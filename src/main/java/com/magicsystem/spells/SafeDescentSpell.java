@@ -1,5 +1,6 @@
 package com.magicsystem.spells;
 
+import com.magicsystem.effects.FxBudget;
 import net.minecraft.particle.ParticleTypes;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.server.world.ServerWorld;
@@ -35,7 +36,7 @@ public class SafeDescentSpell extends Spell {
                     double x = center.x + Math.cos(angle) * radius;
                     double y = center.y + (i * 0.03);
                     double z = center.z + Math.sin(angle) * radius;
-                    serverWorld.spawnParticles(ParticleTypes.CLOUD, x, y, z, 1, 0.02, 0.02, 0.02, 0.01);
+                    FxBudget.particles(serverWorld, FxBudget.Priority.NORMAL, ParticleTypes.CLOUD, x, y, z, 1, 0.02, 0.02, 0.02, 0.01);
                 }
             }
 
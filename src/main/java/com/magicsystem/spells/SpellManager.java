@@ -3,6 +3,9 @@ package com.magicsystem.spells;
 import com.magicsystem.MagicSystemMod;
 import com.magicsystem.config.MagicSystemConfig;
 import com.magicsystem.mana.ManaManager;
+import com.magicsystem.mana.PlayerStateTable;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.util.hit.HitResult;
 import net.minecraft.util.math.Vec3d;
@@ -10,19 +13,22 @@ import net.minecraft.world.RaycastContext;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
 
 public class SpellManager {
     private final MagicSystemConfig config;
     private final ManaManager manaManager;
     private final Map<String, Spell> spells = new HashMap<>();
-    private final Map<UUID, Map<String, Long>> playerCooldowns = new HashMap<>();
-    private final Map<UUID, Long> lastCastTimes = new HashMap<>(); // For rate limiting
+    // Dense spell indices for the cooldown columns of the player state table
+    private final Object2IntOpenHashMap<String> spellIndex = new Object2IntOpenHashMap<>();
+    private Spell[] spellsByIndex = new Spell[0];
+    private String[] idsByIndex = new String[0];
+    private final PlayerStateTable state;
     private static final int MIN_CAST_INTERVAL_MS = 100; // Minimum 100ms between casts
     
     public SpellManager(MagicSystemConfig config) {
         this.config = config;
         this.manaManager = MagicSystemMod.getManaManager();
+        this.state = manaManager.getStateTable();
         registerSpells();
     }
     
@@ -30,68 +36,113 @@ public class SpellManager {
         // Load all available spells from registry (data-driven)
         spells.clear();
         spells.putAll(com.magicsystem.spells.registry.SpellRegistry.load());
+        spellIndex.clear();
+        spellIndex.defaultReturnValue(-1);
+        spellsByIndex = new Spell[spells.size()];
+        idsByIndex = new String[spells.size()];
+        int i = 0;
+        for (Map.Entry<String, Spell> e : spells.entrySet()) {
+            spellsByIndex[i] = e.getValue();
+            idsByIndex[i] = e.getKey();
+            spellIndex.put(e.getKey(), i++);
+        }
+        state.setSpellCount(spellsByIndex.length);
         com.magicsystem.MagicSystemMod.LOGGER.info("Registered {} spells from config", spells.size());
     }
     
+    /**
+     * Casts a spell for a player. Safe to call from any thread: the rate limit, mana and cooldown are
+     * reserved atomically on the calling thread, and the spell itself then runs on the server thread,
+     * which refunds the reservation if the cast fails. Off the server thread the result only says
+     * whether the cast was accepted; on it, whether the spell went off.
+     */
     public boolean castSpell(ServerPlayerEntity player, String spellId) {
-        UUID playerId = player.getUuid();
+        int slot = manaManager.liveSlot(player);
+        if (slot < 0) {
+            return false;
+        }
+        int generation = manaManager.generationOf(player);
         long currentTime = System.currentTimeMillis();
         
-        // Rate limiting check - prevent spam casting
-        Long lastCastTime = lastCastTimes.get(playerId);
-        if (lastCastTime != null && (currentTime - lastCastTime) < MIN_CAST_INTERVAL_MS) {
+        // Rate limiting check - prevent spam casting. Claimed up front so concurrent casts can't both pass
+        long previousCastTime = state.tryClaimCast(slot, generation, currentTime, MIN_CAST_INTERVAL_MS);
+        if (previousCastTime < 0) {
             MagicSystemMod.LOGGER.warn("Player {} attempted to cast too quickly (rate limited)", 
                 player.getName().getString());
             return false;
         }
         
-        Spell spell = spells.get(spellId);
-        if (spell == null) {
-            MagicSystemMod.LOGGER.warn("Player {} attempted to cast unknown spell: {}", 
-                player.getName().getString(), spellId);
+        Reservation reservation = reserve(player, slot, generation, spellId, currentTime, previousCastTime);
+        if (reservation == null) {
+            // Nothing was cast, so it doesn't count towards the rate limit
+            state.releaseCast(slot, generation, currentTime, previousCastTime);
             return false;
         }
         
-        // Optional per-spell raycast validation (only if spell requires target)
-        if (spell.getRequiresTarget()) {
-            boolean hit = hasLineOfSightTarget(player, spell.getRange());
-            if (!hit) {
-                player.sendMessage(net.minecraft.text.Text.literal("§cNo valid target in sight."));
-                return false;
-            }
+        MinecraftServer server = player.getWorld().getServer();
+        if (server == null || server.isOnThread()) {
+            return completeCast(player, spellId, reservation);
+        }
+        server.execute(() -> completeCast(player, spellId, reservation));
+        return true;
+    }
+    
+    /** What a cast has claimed ahead of running, so a failed cast can give it back. */
+    private record Reservation(int slot, int generation, int index, long time, long previousCastTime,
+                               long previousCast, boolean chargedMana) {
+    }
+    
+    private Reservation reserve(ServerPlayerEntity player, int slot, int generation, String spellId,
+                                long currentTime, long previousCastTime) {
+        int index = spellIndex.getInt(spellId);
+        if (index < 0) {
+            MagicSystemMod.LOGGER.warn("Player {} attempted to cast unknown spell: {}", 
+                player.getName().getString(), spellId);
+            return null;
         }
+        Spell spell = spellsByIndex[index];
         
         // Check cooldown
-        if (config.enableSpellCooldowns && isOnCooldown(playerId, spellId, spell.getCooldown())) {
+        if (config.enableSpellCooldowns && isOnCooldown(slot, index, spell.getCooldown())) {
             player.sendMessage(net.minecraft.text.Text.literal("§cSpell is on cooldown!"));
             MagicSystemMod.LOGGER.debug("Player {} spell {} on cooldown", 
                 player.getName().getString(), spellId);
-            return false;
+            return null;
         }
         
-        // Check mana
-        if (config.enableManaCosts && !manaManager.hasMana(player, spell.getManaCost())) {
+        // Reserve mana and claim the cooldown up front, atomically, so concurrent casts can't both pass the checks
+        boolean chargeMana = config.enableManaCosts;
+        if (chargeMana && !manaManager.tryConsume(player, spell.getManaCost())) {
             player.sendMessage(net.minecraft.text.Text.literal("§cNot enough mana!"));
             MagicSystemMod.LOGGER.debug("Player {} insufficient mana for spell {}", 
                 player.getName().getString(), spellId);
+            return null;
+        }
+        long previousCast = 0;
+        if (config.enableSpellCooldowns) {
+            previousCast = state.tryStartCooldown(slot, generation, index, currentTime, spell.getCooldown());
+            if (previousCast < 0) {
+                if (chargeMana) manaManager.restore(player, spell.getManaCost());
+                player.sendMessage(net.minecraft.text.Text.literal("§cSpell is on cooldown!"));
+                return null;
+            }
+        }
+        return new Reservation(slot, generation, index, currentTime, previousCastTime, previousCast, chargeMana);
+    }
+    
+    /** Runs a reserved cast. Server thread only. */
+    private boolean completeCast(ServerPlayerEntity player, String spellId, Reservation r) {
+        // The player left before the cast came round; their slot, and whatever was reserved in it, is gone
+        if (!state.holds(r.slot(), r.generation())) {
             return false;
         }
+        if (config.enableSpellCooldowns) state.markCooldownsChanged(r.slot());
+        Spell spell = spellsByIndex[r.index()];
         
-        // Cast the spell
-        if (spell.cast(player)) {
-            // Update rate limiting timestamp
-            lastCastTimes.put(playerId, currentTime);
-            
-            // Consume mana
-            if (config.enableManaCosts) {
-                manaManager.consumeMana(player, spell.getManaCost());
-            }
-            
-            // Set cooldown
-            if (config.enableSpellCooldowns) {
-                setCooldown(playerId, spellId, spell.getCooldown());
-            }
-            
+        // Optional per-spell raycast validation (only if spell requires target)
+        if (spell.getRequiresTarget() && !hasLineOfSightTarget(player, spell.getRange())) {
+            player.sendMessage(net.minecraft.text.Text.literal("§cNo valid target in sight."));
+        } else if (spell.cast(player)) {
             MagicSystemMod.LOGGER.info("Player {} cast spell {} (mana cost: {}, cooldown: {}ms)", 
                 player.getName().getString(), spellId, spell.getManaCost(), spell.getCooldown());
             return true;
@@ -100,6 +151,12 @@ public class SpellManager {
                 player.getName().getString(), spellId);
         }
         
+        // Nothing happened: refund the mana and give the cooldown and rate limit back, unless a newer cast has claimed them since
+        if (r.chargedMana()) manaManager.restore(player, spell.getManaCost());
+        if (config.enableSpellCooldowns) {
+            state.compareAndSetCooldownStart(r.slot(), r.generation(), r.index(), r.time(), r.previousCast());
+        }
+        state.releaseCast(r.slot(), r.generation(), r.time(), r.previousCastTime());
         return false;
     }
 
@@ -112,46 +169,51 @@ public class SpellManager {
         return hit != null && hit.getType() != HitResult.Type.MISS;
     }
     
-    private boolean isOnCooldown(UUID playerId, String spellId, int cooldownMs) {
-        Map<String, Long> playerSpells = playerCooldowns.get(playerId);
-        if (playerSpells == null) {
-            return false;
-        }
-        
-        Long lastCast = playerSpells.get(spellId);
-        if (lastCast == null) {
-            return false;
-        }
-        
-        return System.currentTimeMillis() - lastCast < cooldownMs;
-    }
-    
-    private void setCooldown(UUID playerId, String spellId, int cooldownMs) {
-        playerCooldowns.computeIfAbsent(playerId, k -> new HashMap<>())
-            .put(spellId, System.currentTimeMillis());
-        // Push cooldowns to player client
-        try {
-            var player = com.magicsystem.MagicSystemMod.getManaManager(); // placeholder to keep imports minimal
-        } catch (Exception ignored) {}
+    private boolean isOnCooldown(int slot, int index, int cooldownMs) {
+        long lastCast = state.getCooldownStart(slot, index);
+        return lastCast != 0 && System.currentTimeMillis() - lastCast < cooldownMs;
     }
 
     public void sendCooldownsTo(ServerPlayerEntity player) {
-        Map<String, Long> map = playerCooldowns.get(player.getUuid());
+        int slot = manaManager.slotOf(player);
         java.util.List<com.magicsystem.network.CooldownsUpdatePacket.Entry> entries = new java.util.ArrayList<>();
         long now = System.currentTimeMillis();
-        if (map != null) {
-            for (var e : map.entrySet()) {
-                Spell s = spells.get(e.getKey());
-                if (s == null) continue;
-                int remaining = (int)Math.max(0, s.getCooldown() - (now - e.getValue()));
-                if (remaining > 0) {
-                    entries.add(new com.magicsystem.network.CooldownsUpdatePacket.Entry(e.getKey(), s.getName(), remaining));
-                }
+        for (int i = 0; i < spellsByIndex.length; i++) {
+            long lastCast = state.getCooldownStart(slot, i);
+            if (lastCast == 0) continue;
+            Spell s = spellsByIndex[i];
+            int remaining = (int)Math.max(0, s.getCooldown() - (now - lastCast));
+            if (remaining > 0) {
+                entries.add(new com.magicsystem.network.CooldownsUpdatePacket.Entry(idsByIndex[i], s.getName(), remaining));
             }
         }
         net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking.send(player, new com.magicsystem.network.CooldownsUpdatePacket(entries));
     }
     
+    /** Cooldowns still running for a player slot, as cast times in ms by spell id. */
+    public Map<String, Long> activeCooldowns(int slot) {
+        Map<String, Long> out = new HashMap<>();
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < spellsByIndex.length; i++) {
+            long lastCast = state.getCooldownStart(slot, i);
+            if (lastCast != 0 && now - lastCast < spellsByIndex[i].getCooldown()) {
+                out.put(idsByIndex[i], lastCast);
+            }
+        }
+        return out;
+    }
+    
+    /** Restores saved cooldowns into a player slot, skipping spells that no longer exist or have since expired. */
+    public void restoreCooldowns(int slot, Map<String, Long> castTimes) {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, Long> e : castTimes.entrySet()) {
+            int index = spellIndex.getInt(e.getKey());
+            if (index >= 0 && now - e.getValue() < spellsByIndex[index].getCooldown()) {
+                state.setCooldownStart(slot, index, e.getValue());
+            }
+        }
+    }
+    
     public Spell getSpell(String spellId) {
         return spells.get(spellId);
     }
@@ -161,42 +223,23 @@ public class SpellManager {
     }
     
     public int getCooldownRemaining(ServerPlayerEntity player, String spellId) {
-        Map<String, Long> playerSpells = playerCooldowns.get(player.getUuid());
-        if (playerSpells == null) {
+        int index = spellIndex.getInt(spellId);
+        if (index < 0) {
             return 0;
         }
         
-        Long lastCast = playerSpells.get(spellId);
-        if (lastCast == null) {
+        int slot = manaManager.liveSlot(player);
+        if (slot < 0) {
             return 0;
         }
         
-        Spell spell = spells.get(spellId);
-        if (spell == null) {
+        long lastCast = state.getCooldownStart(slot, index);
+        if (lastCast == 0) {
             return 0;
         }
         
         long elapsed = System.currentTimeMillis() - lastCast;
-        int remaining = (int) (spell.getCooldown() - elapsed);
+        int remaining = (int) (spellsByIndex[index].getCooldown() - elapsed);
         return Math.max(0, remaining);
     }
-    
-    public void onPlayerLeave(UUID playerId) {
-        // Clean up player data to prevent memory leaks
-        playerCooldowns.remove(playerId);
-        lastCastTimes.remove(playerId);
-        MagicSystemMod.LOGGER.debug("Cleaned up spell data for player {}", playerId);
-    }
-    
-    public void onServerStopping() {
-        // Clean up all data
-        int cooldownCount = playerCooldowns.size();
-        int rateLimitCount = lastCastTimes.size();
-        
-        playerCooldowns.clear();
-        lastCastTimes.clear();
-        
-        MagicSystemMod.LOGGER.info("SpellManager cleaned up {} cooldown entries and {} rate limit entries", 
-            cooldownCount, rateLimitCount);
-    }
 }
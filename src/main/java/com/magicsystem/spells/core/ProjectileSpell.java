@@ -1,10 +1,15 @@
 package com.magicsystem.spells.core;
 
+import com.magicsystem.MagicSystemMod;
 import com.magicsystem.effects.EffectsManager;
+import com.magicsystem.entity.MagicProjectileEntity;
+import com.magicsystem.entity.MagicSystemEntities;
 import com.magicsystem.spells.Spell;
+import net.minecraft.entity.EntityType;
 import net.minecraft.entity.projectile.FireballEntity;
 import net.minecraft.entity.projectile.SmallFireballEntity;
 import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
 import net.minecraft.sound.SoundCategory;
 import net.minecraft.sound.SoundEvent;
 import net.minecraft.util.math.Vec3d;
@@ -12,7 +17,7 @@ import net.minecraft.world.World;
 
 public class ProjectileSpell extends Spell {
 
-    public enum Variant { FIREBALL, SMALL_FIREBALL }
+    public enum Variant { FIREBALL, SMALL_FIREBALL, MAGIC }
 
     private final Variant variant;
     private final double velocity;
@@ -43,6 +48,15 @@ public class ProjectileSpell extends Spell {
                 world.playSound(null, player.getBlockPos(), castSound, SoundCategory.PLAYERS, 0.9f, 1.0f);
             }
 
+            if (MagicSystemMod.getConfig().virtualProjectiles && world instanceof ServerWorld serverWorld) {
+                // Entity-less: simulated by EffectsManager, collision radius is the half-width of the variant's entity
+                double radius = entityType().getWidth() / 2.0;
+                EffectsManager.launchVirtualProjectile(serverWorld, player, startPos, dir.multiply(velocity), radius,
+                    this.damage, this.directHitRadius, this.areaDamageRadius, this.knockbackStrength);
+                sendCastMessage(player);
+                return true;
+            }
+
             switch (variant) {
                 case FIREBALL -> {
                     FireballEntity fb = new FireballEntity(world, player, dir, Math.max(0, explosionPower));
@@ -60,6 +74,14 @@ public class ProjectileSpell extends Spell {
                         EffectsManager.trackProjectile(sfb, this.damage, this.directHitRadius, this.areaDamageRadius, this.knockbackStrength);
                     }
                 }
+                case MAGIC -> {
+                    MagicProjectileEntity mp = new MagicProjectileEntity(world, player, EffectsManager.defaultParams().build());
+                    mp.setPosition(startPos);
+                    mp.setVelocity(dir.multiply(velocity));
+                    if (world.spawnEntity(mp)) {
+                        EffectsManager.trackProjectile(mp, this.damage, this.directHitRadius, this.areaDamageRadius, this.knockbackStrength);
+                    }
+                }
             }
 
             sendCastMessage(player);
@@ -71,10 +93,19 @@ public class ProjectileSpell extends Spell {
         }
     }
 
+    private EntityType<?> entityType() {
+        return switch (variant) {
+            case FIREBALL -> EntityType.FIREBALL;
+            case SMALL_FIREBALL -> EntityType.SMALL_FIREBALL;
+            case MAGIC -> MagicSystemEntities.MAGIC_PROJECTILE;
+        };
+    }
+
     public static ProjectileSpell.Variant variantFromString(String s) {
         if (s == null) return Variant.SMALL_FIREBALL;
         return switch (s.toLowerCase()) {
             case "fireball", "large", "big" -> Variant.FIREBALL;
+            case "magic", "orb" -> Variant.MAGIC;
             default -> Variant.SMALL_FIREBALL;
         };
     }
@@ -1,5 +1,6 @@
 package com.magicsystem.spells.core;
 
+import com.magicsystem.effects.FxBudget;
 import com.magicsystem.spells.Spell;
 import net.minecraft.entity.effect.StatusEffect;
 import net.minecraft.entity.effect.StatusEffectInstance;
@@ -62,7 +63,7 @@ public class StatusEffectSpell extends Spell {
                     double x = c.x + Math.cos(angle) * r;
                     double y = c.y + (i * 0.02);
                     double z = c.z + Math.sin(angle) * r;
-                    sw.spawnParticles(ParticleTypes.CLOUD, x, y, z, 1, 0.02, 0.02, 0.02, 0.01);
+                    FxBudget.particles(sw, FxBudget.Priority.NORMAL, ParticleTypes.CLOUD, x, y, z, 1, 0.02, 0.02, 0.02, 0.01);
                 }
             }
 
@@ -6,7 +6,12 @@ import com.magicsystem.spells.Spell;
 import com.magicsystem.spells.core.ProjectileSpell;
 import com.magicsystem.spells.core.StatusEffectSpell;
 import com.magicsystem.spells.GreatWallSpell;
+import com.magicsystem.spells.shape.ShapeTemplate;
 import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.registry.Registries;
 import net.minecraft.sound.SoundEvent;
 import net.minecraft.util.Identifier;
 
@@ -78,7 +83,27 @@ public final class SpellRegistry {
                         int riseTicks = getInt(s, "riseTicks", 20);
                         int holdTicks = getInt(s, "holdTicks", 100);
                         boolean allowReplace = s.has("allowReplace") && s.get("allowReplace").getAsBoolean();
-                        out.put(id, new GreatWallSpell(id, name, mana, cd, width, height, range, riseTicks, holdTicks, allowReplace));
+                        // Optional shape block; without one this is the classic flat wall
+                        ShapeTemplate shape = ShapeTemplate.of(ShapeTemplate.Type.WALL, width, height, 0);
+                        if (s.has("shape") && s.get("shape").isJsonObject()) {
+                            JsonObject sh = s.getAsJsonObject("shape");
+                            shape = ShapeTemplate.of(
+                                ShapeTemplate.typeFromString(getStr(sh, "type", "wall")),
+                                getInt(sh, "width", width),
+                                getInt(sh, "height", height),
+                                getInt(sh, "radius", 3));
+                        }
+                        // Optional material; falling blocks such as gravel get their columns filled down to the ground
+                        BlockState material = null;
+                        if (s.has("material")) {
+                            Block block = Registries.BLOCK.get(Identifier.of(getStr(s, "material", "")));
+                            if (block == Blocks.AIR) {
+                                MagicSystemMod.LOGGER.warn("Unknown wall material '{}' for id '{}', using magicsystem:arcane_wall", getStr(s, "material", ""), id);
+                            } else {
+                                material = block.getDefaultState();
+                            }
+                        }
+                        out.put(id, new GreatWallSpell(id, name, mana, cd, shape, range, riseTicks, holdTicks, allowReplace, material));
                     }
                     default -> {
                         MagicSystemMod.LOGGER.warn("Unknown spell type '{}' for id '{}'", type, id);
@@ -0,0 +1,167 @@
+package com.magicsystem.spells.shape;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongLinkedOpenHashSet;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Block layout of a building spell (wall, ring, dome, pillar), relative to the block the caster
+ * targets. Offsets are computed once per horizontal facing when the template is built and kept as
+ * packed {@link BlockPos#asLong} values, so a cast only has to translate an array.
+ */
+public final class ShapeTemplate {
+    public enum Type { WALL, RING, DOME, PILLAR }
+
+    // Spells with the same shape share one template
+    private static final Map<Key, ShapeTemplate> CACHE = new ConcurrentHashMap<>();
+
+    private final Type type;
+    private final int width;
+    private final int height;
+    private final int radius;
+    // Indexed by facing: north, east, south, west
+    private final long[][] offsets = new long[4][];
+    // Columns whose lowest block sits on the target level (dy == 0), as packed (dx, 0, dz); only these get ground fill
+    private final long[][] footprint = new long[4][];
+
+    private ShapeTemplate(Type type, int width, int height, int radius) {
+        this.type = type;
+        this.width = width;
+        this.height = height;
+        this.radius = radius;
+
+        long[] base = build();
+        for (int turns = 0; turns < 4; turns++) {
+            LongArrayList rotated = new LongArrayList(base.length);
+            LongLinkedOpenHashSet columns = new LongLinkedOpenHashSet();
+            for (long offset : base) {
+                int x = BlockPos.unpackLongX(offset), y = BlockPos.unpackLongY(offset), z = BlockPos.unpackLongZ(offset);
+                for (int t = 0; t < turns; t++) {
+                    int nx = -z; // quarter turn clockwise seen from above
+                    z = x;
+                    x = nx;
+                }
+                rotated.add(BlockPos.asLong(x, y, z));
+                if (y == 0) columns.add(BlockPos.asLong(x, 0, z));
+            }
+            offsets[turns] = rotated.toLongArray();
+            footprint[turns] = columns.toLongArray();
+        }
+    }
+
+    /**
+     * Returns the template for a shape, building it on first use.
+     *
+     * @param width  wall length across the caster's view (walls only)
+     * @param height blocks tall (wall, ring, pillar)
+     * @param radius ring, dome and pillar radius; a pillar of radius 0 is a single column, rings and domes need at least 1
+     */
+    public static ShapeTemplate of(Type type, int width, int height, int radius) {
+        // A ring or dome of radius 0 would be a shell with nothing in it
+        int minRadius = type == Type.RING || type == Type.DOME ? 1 : 0;
+        Key key = new Key(type, Math.max(1, width), Math.max(1, height), Math.max(minRadius, radius));
+        return CACHE.computeIfAbsent(key, k -> new ShapeTemplate(k.type, k.width, k.height, k.radius));
+    }
+
+    public static Type typeFromString(String s) {
+        return switch (s.toLowerCase()) {
+            case "ring" -> Type.RING;
+            case "dome" -> Type.DOME;
+            case "pillar" -> Type.PILLAR;
+            default -> Type.WALL;
+        };
+    }
+
+    /** Offsets for a caster facing north; the other facings are rotations of this. */
+    private long[] build() {
+        LongArrayList out = new LongArrayList();
+        switch (type) {
+            case WALL -> {
+                int half = width / 2;
+                for (int dx = -half; dx <= half; dx++) {
+                    for (int dy = 0; dy < height; dy++) {
+                        out.add(BlockPos.asLong(dx, dy, 0));
+                    }
+                }
+            }
+            case RING -> {
+                double outer = (radius + 0.5) * (radius + 0.5);
+                double inner = (radius - 0.5) * (radius - 0.5);
+                for (int dx = -radius; dx <= radius; dx++) {
+                    for (int dz = -radius; dz <= radius; dz++) {
+                        int d2 = dx * dx + dz * dz;
+                        if (d2 > outer || d2 <= inner) continue;
+                        for (int dy = 0; dy < height; dy++) {
+                            out.add(BlockPos.asLong(dx, dy, dz));
+                        }
+                    }
+                }
+            }
+            case DOME -> {
+                double outer = (radius + 0.5) * (radius + 0.5);
+                double inner = (radius - 0.5) * (radius - 0.5);
+                for (int dx = -radius; dx <= radius; dx++) {
+                    for (int dz = -radius; dz <= radius; dz++) {
+                        for (int dy = 0; dy <= radius; dy++) {
+                            int d2 = dx * dx + dy * dy + dz * dz;
+                            if (d2 <= outer && d2 > inner) out.add(BlockPos.asLong(dx, dy, dz));
+                        }
+                    }
+                }
+            }
+            case PILLAR -> {
+                double outer = (radius + 0.5) * (radius + 0.5);
+                for (int dx = -radius; dx <= radius; dx++) {
+                    for (int dz = -radius; dz <= radius; dz++) {
+                        if (dx * dx + dz * dz > outer) continue;
+                        for (int dy = 0; dy < height; dy++) {
+                            out.add(BlockPos.asLong(dx, dy, dz));
+                        }
+                    }
+                }
+            }
+        }
+        return out.toLongArray();
+    }
+
+    /** Shape blocks for a caster facing {@code facing}, translated to {@code origin}. */
+    public long[] place(BlockPos origin, Direction facing) {
+        long[] template = offsets[index(facing)];
+        long[] out = new long[template.length];
+        for (int i = 0; i < template.length; i++) {
+            out[i] = BlockPos.add(template[i], origin.getX(), origin.getY(), origin.getZ());
+        }
+        return out;
+    }
+
+    /** Packed (dx, 0, dz) offsets of the columns that stand on the target level, for a caster facing {@code facing}. */
+    public long[] footprint(Direction facing) {
+        return footprint[index(facing)];
+    }
+
+    /** Horizontal extent in blocks, across the widest part of the shape. */
+    public int horizontalSize() {
+        return type == Type.WALL ? width : radius * 2 + 1;
+    }
+
+    /** Blocks tall. */
+    public int height() {
+        return type == Type.DOME ? radius + 1 : height;
+    }
+
+    private record Key(Type type, int width, int height, int radius) {
+    }
+
+    private static int index(Direction facing) {
+        return switch (facing) {
+            case EAST -> 1;
+            case SOUTH -> 2;
+            case WEST -> 3;
+            default -> 0;
+        };
+    }
+}
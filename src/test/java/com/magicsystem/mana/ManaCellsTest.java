@@ -0,0 +1,193 @@
+package com.magicsystem.mana;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ManaCellsTest {
+    private static final int THREADS = 8;
+    private static final int MAX = ManaCells.MAX_MANA;
+
+    @Test
+    void regeneratesLazilyAndRestartsWhenFull() {
+        ManaCells cells = new ManaCells();
+        cells.ensureCapacity(1);
+        int generation = cells.occupy(0, 0, 0);
+
+        // 5 mana every 10 ticks: two whole steps by tick 25, anchor keeps its phase
+        assertEquals(10, cells.regenerate(0, generation, 100, 25, 5, 10));
+        assertEquals(20, cells.anchor(0));
+
+        // Full: the anchor follows the clock, so the next spend starts a fresh interval
+        assertEquals(100, cells.regenerate(0, generation, 100, 1000, 5, 10));
+        assertTrue(cells.tryConsume(0, generation, 40, 100, 1003, 5, 10));
+        assertEquals(60, cells.regenerate(0, generation, 100, 1012, 5, 10));
+        assertEquals(65, cells.regenerate(0, generation, 100, 1013, 5, 10));
+    }
+
+    @Test
+    void staleGenerationIsRefused() {
+        ManaCells cells = new ManaCells();
+        cells.ensureCapacity(1);
+        int first = cells.occupy(0, 50, 0);
+        assertEquals(50, cells.vacate(0, 100, 0, 0, 1));
+        int second = cells.occupy(0, 80, 0);
+
+        assertFalse(cells.tryConsume(0, first, 10, 100, 0, 0, 1));
+        assertEquals(-1, cells.restore(0, first, 10, 100, 0, 0, 1));
+        assertEquals(-1, cells.regenerate(0, first, 100, 0, 0, 1));
+        assertFalse(cells.set(0, first, 0, 0));
+        assertEquals(80, cells.regenerate(0, second, 100, 0, 0, 1));
+    }
+
+    @Test
+    void concurrentConsumeNeverOverspends() throws InterruptedException {
+        int mana = 100_000;
+        ManaCells cells = new ManaCells();
+        cells.ensureCapacity(1);
+        int generation = cells.occupy(0, mana, 0);
+        AtomicInteger spent = new AtomicInteger();
+
+        runConcurrently(() -> {
+            while (cells.tryConsume(0, generation, 1, MAX, 0, 0, 1)) {
+                spent.incrementAndGet();
+            }
+        });
+
+        assertEquals(mana, spent.get());
+        assertEquals(0, cells.mana(0));
+    }
+
+    /** Spends and restores race on shared slots while the cells keep growing; every slot must balance. */
+    @Test
+    void consumeAndRestoreBalanceWhileGrowing() throws InterruptedException {
+        int slots = 4;
+        int initial = 1_000_000;
+        int opsPerThread = 50_000;
+        ManaCells cells = new ManaCells();
+        cells.ensureCapacity(slots);
+        int[] generations = new int[slots];
+        for (int slot = 0; slot < slots; slot++) {
+            generations[slot] = cells.occupy(slot, initial, 0);
+        }
+        AtomicLongArray net = new AtomicLongArray(slots);
+        AtomicBoolean done = new AtomicBoolean();
+
+        Thread grower = new Thread(() -> {
+            for (int size = slots; !done.get(); size += 64) {
+                cells.ensureCapacity(size);
+                Thread.yield();
+            }
+        });
+        grower.start();
+        runConcurrently(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < opsPerThread; i++) {
+                int slot = random.nextInt(slots);
+                int amount = 1 + random.nextInt(10);
+                if (random.nextBoolean()) {
+                    if (cells.tryConsume(slot, generations[slot], amount, MAX, 0, 0, 1)) net.addAndGet(slot, -amount);
+                } else {
+                    cells.restore(slot, generations[slot], amount, MAX, 0, 0, 1);
+                    net.addAndGet(slot, amount);
+                }
+            }
+        });
+        done.set(true);
+        grower.join();
+
+        for (int slot = 0; slot < slots; slot++) {
+            assertEquals(initial + net.get(slot), cells.mana(slot), "slot " + slot);
+        }
+    }
+
+    /**
+     * The slot is freed and handed to a new occupant over and over, with the cells growing between
+     * occupancies, while other threads spend and restore through whatever (slot, generation) they
+     * last saw. Every change must land on the occupancy it was made for.
+     */
+    @Test
+    void staleCallersNeverTouchTheNextOccupant() throws InterruptedException {
+        int occupancies = 100; // fewer than 128 (two generations each), so no generation comes round again
+        int initial = 1_000;
+        ManaCells cells = new ManaCells();
+        cells.ensureCapacity(1);
+        AtomicLongArray net = new AtomicLongArray(occupancies);
+        int[] finalMana = new int[occupancies];
+        // Occupancy number in the high 32 bits, its generation in the low 32
+        AtomicLong current = new AtomicLong(-1);
+        AtomicBoolean done = new AtomicBoolean();
+
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (!done.get()) {
+                    long handle = current.get();
+                    if (handle < 0) continue;
+                    int occupancy = (int) (handle >>> 32);
+                    int generation = (int) handle;
+                    int amount = 1 + random.nextInt(3);
+                    if (random.nextBoolean()) {
+                        if (cells.tryConsume(0, generation, amount, MAX, 0, 0, 1)) net.addAndGet(occupancy, -amount);
+                    } else if (cells.restore(0, generation, amount, MAX, 0, 0, 1) >= 0) {
+                        net.addAndGet(occupancy, amount);
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+
+        for (int occupancy = 0; occupancy < occupancies; occupancy++) {
+            int generation = cells.occupy(0, initial, 0);
+            current.set(((long) occupancy << 32) | generation);
+            for (int spin = 0; spin < 20_000; spin++) {
+                Thread.onSpinWait();
+            }
+            cells.ensureCapacity(64 * (occupancy + 2));
+            finalMana[occupancy] = cells.vacate(0, MAX, 0, 0, 1);
+        }
+        done.set(true);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        for (int occupancy = 0; occupancy < occupancies; occupancy++) {
+            assertEquals(initial + net.get(occupancy), finalMana[occupancy], "occupancy " + occupancy);
+        }
+    }
+
+    private static void runConcurrently(Runnable task) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                task.run();
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+}